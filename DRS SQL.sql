@@ -50,8 +50,15 @@ CREATE TABLE IF NOT EXISTS `disasters` (
   `status` enum('Open','In Progress','Closed') DEFAULT 'Open',
   `reported_by` int DEFAULT NULL,
   `reported_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  `message_count` int NOT NULL DEFAULT 0,
+  `pending_request_count` int NOT NULL DEFAULT 0,
+  `last_activity_at` timestamp(3) NULL DEFAULT NULL,
   PRIMARY KEY (`id`),
   KEY `reported_by` (`reported_by`),
+  KEY `idx_disasters_reported_at_id` (`reported_at`, `id`),
+  KEY `idx_disasters_status_reported_at` (`status`, `reported_at`, `id`),
+  KEY `idx_disasters_updated_at` (`updated_at`),
   CONSTRAINT `disasters_ibfk_1` FOREIGN KEY (`reported_by`) REFERENCES `users` (`user_id`) ON DELETE SET NULL
 );
 
@@ -63,8 +70,11 @@ CREATE TABLE IF NOT EXISTS `disaster_messages` (
   `approval_status` tinyint(1) DEFAULT NULL,
   `messageTime` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
   `messagedBy` int NOT NULL,
+  `message_type` enum('UPDATE','REQUEST','APPROVE','REJECT') NOT NULL DEFAULT 'UPDATE',
   PRIMARY KEY (`id`),
   KEY `disasterId` (`disasterId`),
+  KEY `idx_disaster_messages_timeline` (`disasterId`, `messageTime`, `id`),
+  KEY `idx_disaster_messages_type` (`disasterId`, `message_type`, `approval_status`),
   KEY `departmentId` (`departmentId`),
   KEY `messagedBy` (`messagedBy`),
   CONSTRAINT `disaster_messages_ibfk_1` FOREIGN KEY (`disasterId`) REFERENCES `disasters` (`id`),
@@ -1,5 +1,6 @@
 package disasterresponse;
 
+import disasterresponse.services.DatabaseUtil;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -33,6 +34,14 @@ public class App extends Application {
         stage.show();
     }
 
+    /**
+     * Releases pooled database connections when the application exits.
+     */
+    @Override
+    public void stop() {
+        DatabaseUtil.shutdown();
+    }
+
     /**
      * Sets the root of the current scene to a new FXML-based layout.
      *
@@ -2,17 +2,15 @@ package disasterresponse.controllers;
 
 import disasterresponse.models.Disaster;
 import disasterresponse.models.DisasterMessage;
+import disasterresponse.models.MessageType;
 import disasterresponse.models.User;
 import disasterresponse.services.DisasterService;
 import disasterresponse.services.SessionDetails;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 
-import java.util.List;
 import java.util.Optional;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
@@ -80,8 +78,13 @@ public class CurrentDisasterStatusController {
     @FXML
     private Button addUpdateButton;
 
+    private static final int PAGE_SIZE = 50;
+
     private final DisasterService disasterService;
 
+    private DisasterListStore disasterStore;
+    private TimelineTableLoader updateLoader;
+
     /**
      * Constructor for {@code CurrentDisasterStatusController}. Initializes the
      * {@link DisasterService} for accessing disaster-related data.
@@ -120,9 +123,19 @@ public class CurrentDisasterStatusController {
         nameColumn.setCellValueFactory(new PropertyValueFactory<>("messagedByFullName"));
         messageColumn.setCellValueFactory(new PropertyValueFactory<>("message"));
 
+        // Show updates newest first; older updates load as the table is scrolled
+        updateLoader = new TimelineTableLoader(updateTable, disasterService, PAGE_SIZE);
+
+        // Keep the ongoing disasters up to date by merging in only what changed
+        disasterStore = new DisasterListStore(disasterTable.getItems(),
+                disaster -> "In Progress".equals(disaster.getStatus()), null);
+
         // Load ongoing disasters
         loadInProgressDisasters();
 
+        // Keep the time since reporting and priority current between refreshes
+        UiTicker.getInstance().register(disasterTable);
+
         // Row click event to load disaster updates
         disasterTable.setRowFactory(tv -> {
             TableRow<Disaster> row = new TableRow<>();
@@ -143,33 +156,41 @@ public class CurrentDisasterStatusController {
      * table with the data.
      */
     private void loadInProgressDisasters() {
-        updateTable.getItems().clear();
+        updateLoader.clear();
         addUpdateButton.setDisable(true);
         requestResourceButton.setDisable(true);
 
-        List<Disaster> inProgressDisasters = disasterService.getDisastersByStatus("In Progress");
-        ObservableList<Disaster> disasterData = FXCollections.observableArrayList(inProgressDisasters);
-        disasterTable.setItems(disasterData);
+        disasterStore.reset();
+        FxAsync.loadInto(disasterTable, disasterService.getDisastersByStatusAsync("In Progress"), inProgressDisasters -> {
+            disasterTable.getItems().setAll(inProgressDisasters);
+            disasterStore.track(inProgressDisasters);
+        });
     }
 
     /**
-     * Loads the updates for the selected disaster and populates the update
-     * table with the data.
+     * Loads the latest updates for the selected disaster and populates the
+     * update table, newest first. Selecting the same disaster again, or
+     * posting an update to it, fetches only the updates posted since.
      *
      * @param disasterId The ID of the selected disaster.
      */
     private void loadDisasterUpdates(int disasterId) {
-        List<DisasterMessage> disasterMessages = disasterService.getDisasterMessages(disasterId);
-        ObservableList<DisasterMessage> updateData = FXCollections.observableArrayList(disasterMessages);
-        updateTable.setItems(updateData);
+        updateLoader.show(disasterId);
     }
 
     /**
-     * Handles the refresh button action. Reloads the ongoing disasters.
+     * Handles the refresh button action. Merges the ongoing disasters that
+     * changed since they were loaded; disasters that are no longer in
+     * progress are removed.
      */
     @FXML
     private void handleRefresh() {
-        loadInProgressDisasters();
+        if (!disasterStore.canRefresh()) {
+            loadInProgressDisasters();
+            return;
+        }
+        FxAsync.onFx(disasterService.getDisastersChangedSinceAsync(disasterStore.getRefreshFrom()),
+                changes -> disasterStore.merge(changes, true));
     }
 
     /**
@@ -215,9 +236,9 @@ public class CurrentDisasterStatusController {
             Optional<String> result = dialog.showAndWait();
 
             result.ifPresent(requestMessage -> {
-                String prefixedMessage = "[REQUEST] " + requestMessage;
+                String prefixedMessage = MessageType.REQUEST.format(requestMessage);
 
-                disasterService.addMessage(selectedDisaster.getId(), prefixedMessage);
+                disasterService.addMessage(selectedDisaster.getId(), MessageType.REQUEST, requestMessage);
                 loadDisasterUpdates(selectedDisaster.getId());
                 addUpdateButton.setDisable(true);
                 requestResourceButton.setDisable(true);
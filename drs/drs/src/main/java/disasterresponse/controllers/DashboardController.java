@@ -7,6 +7,8 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Tab;
 import javafx.scene.layout.AnchorPane;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -28,6 +30,12 @@ import javafx.stage.Stage;
  * logged-in user.
  * </p>
  *
+ * <p>
+ * Tab content is loaded lazily: a tab's FXML view, and the database queries
+ * its controller runs, are only loaded the first time the tab is selected.
+ * Tabs removed for the user's role are never loaded.
+ * </p>
+ *
  * @author 12236202
  */
 public class DashboardController {
@@ -50,28 +58,27 @@ public class DashboardController {
     @FXML
     private Tab sendInitialResourcesTab;
 
+    @FXML
+    private Tab pendingRequestsTab;
+
     @FXML
     private Tab currentDisasterStatusTab;
 
     @FXML
     private Button signOutButton;
 
+    private final Map<String, AnchorPane> tabContentCache = new HashMap<>();
+
     /**
-     * Initializes the dashboard controller. Loads the content of various tabs
-     * and sets their visibility based on the logged-in user's role. The method
-     * also sets the user's information at the top of the dashboard.
+     * Initializes the dashboard controller. Sets the visibility of the tabs
+     * based on the logged-in user's role and registers the remaining tabs to
+     * load their content when first selected. The method also sets the user's
+     * information at the top of the dashboard.
      */
     @FXML
     public void initialize() {
         userInfoLabel.setText(SessionDetails.getInstance().getTopMessage());
 
-        // Load content for each tab
-        loadTabContent(usersTab, "/disasterresponse/views/users.fxml");
-        loadTabContent(reportDisasterTab, "/disasterresponse/views/reportDisaster.fxml");
-        loadTabContent(viewAllDisastersTab, "/disasterresponse/views/viewAllDisasters.fxml");
-        loadTabContent(sendInitialResourcesTab, "/disasterresponse/views/sendInitialResources.fxml");
-        loadTabContent(currentDisasterStatusTab, "/disasterresponse/views/currentDisasterStatus.fxml");
-
         // Get the logged-in user details
         User loggedInUser = SessionDetails.getInstance().getLoggedInUser();
         String userRole = loggedInUser.getUserRoleName();
@@ -81,29 +88,39 @@ public class DashboardController {
         reportDisasterTab.setDisable(true);
         viewAllDisastersTab.setDisable(true);
         sendInitialResourcesTab.setDisable(true);
+        pendingRequestsTab.setDisable(true);
         currentDisasterStatusTab.setDisable(true);
 
         // Show or hide tabs based on the user's role
         switch (userRole) {
             case "System Administrator" -> {
                 usersTab.setDisable(false);
-                dashboardTabPane.getTabs().removeAll(reportDisasterTab, viewAllDisastersTab, sendInitialResourcesTab, currentDisasterStatusTab);
+                dashboardTabPane.getTabs().removeAll(reportDisasterTab, viewAllDisastersTab, sendInitialResourcesTab, pendingRequestsTab, currentDisasterStatusTab);
             }
             case "Public User" -> {
                 reportDisasterTab.setDisable(false);
                 viewAllDisastersTab.setDisable(false);
-                dashboardTabPane.getTabs().removeAll(usersTab, sendInitialResourcesTab, currentDisasterStatusTab);
+                dashboardTabPane.getTabs().removeAll(usersTab, sendInitialResourcesTab, pendingRequestsTab, currentDisasterStatusTab);
             }
             case "Department Administrator" -> {
                 sendInitialResourcesTab.setDisable(false);
+                pendingRequestsTab.setDisable(false);
                 currentDisasterStatusTab.setDisable(false);
                 dashboardTabPane.getTabs().removeAll(usersTab, reportDisasterTab, viewAllDisastersTab);
             }
             case "Responder" -> {
                 currentDisasterStatusTab.setDisable(false);
-                dashboardTabPane.getTabs().removeAll(usersTab, reportDisasterTab, viewAllDisastersTab, sendInitialResourcesTab);
+                dashboardTabPane.getTabs().removeAll(usersTab, reportDisasterTab, viewAllDisastersTab, sendInitialResourcesTab, pendingRequestsTab);
             }
         }
+
+        // Load content for each remaining tab on first selection
+        loadTabContentOnSelection(usersTab, "/disasterresponse/views/users.fxml");
+        loadTabContentOnSelection(reportDisasterTab, "/disasterresponse/views/reportDisaster.fxml");
+        loadTabContentOnSelection(viewAllDisastersTab, "/disasterresponse/views/viewAllDisasters.fxml");
+        loadTabContentOnSelection(sendInitialResourcesTab, "/disasterresponse/views/sendInitialResources.fxml");
+        loadTabContentOnSelection(pendingRequestsTab, "/disasterresponse/views/pendingRequests.fxml");
+        loadTabContentOnSelection(currentDisasterStatusTab, "/disasterresponse/views/currentDisasterStatus.fxml");
     }
 
     /**
@@ -140,17 +157,48 @@ public class DashboardController {
     }
 
     /**
-     * Loads the content for the specified tab from the given FXML file.
+     * Defers loading the content of a tab until the tab is first selected.
+     * Tabs that are not on the tab pane for the user's role are skipped.
+     *
+     * @param tab The tab to load the content into.
+     * @param fxmlPath The path to the FXML file to be loaded.
+     */
+    private void loadTabContentOnSelection(Tab tab, String fxmlPath) {
+        if (!dashboardTabPane.getTabs().contains(tab)) {
+            return;
+        }
+
+        if (tab.isSelected()) {
+            loadTabContent(tab, fxmlPath);
+        }
+        tab.setOnSelectionChanged(event -> {
+            if (tab.isSelected()) {
+                loadTabContent(tab, fxmlPath);
+            }
+        });
+    }
+
+    /**
+     * Loads the content for the specified tab from the given FXML file. The
+     * loaded view is cached, so selecting the tab again reuses it.
      *
      * @param tab The tab to load the content into.
      * @param fxmlPath The path to the FXML file to be loaded.
      */
     private void loadTabContent(Tab tab, String fxmlPath) {
-        try {
-            AnchorPane tabContent = FXMLLoader.load(getClass().getResource(fxmlPath));
+        AnchorPane tabContent = tabContentCache.get(fxmlPath);
+        if (tabContent == null) {
+            try {
+                tabContent = FXMLLoader.load(getClass().getResource(fxmlPath));
+                tabContentCache.put(fxmlPath, tabContent);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+
+        if (tab.getContent() != tabContent) {
             tab.setContent(tabContent);
-        } catch (IOException e) {
-            e.printStackTrace();
         }
     }
 }
@@ -0,0 +1,172 @@
+package disasterresponse.controllers;
+
+import disasterresponse.models.Disaster;
+import disasterresponse.services.DatabaseUtil;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The {@code DisasterListStore} class keeps a loaded list of disasters up to
+ * date by merging in only the disasters that changed since the last read,
+ * instead of reloading the whole list.
+ *
+ * <p>
+ * The store remembers the latest change time it has seen, its watermark.
+ * A refresh asks the service for the disasters changed since
+ * {@link #getRefreshFrom()} and passes them to {@link #merge(List, boolean)}.
+ * Changed disasters already in the list are replaced, disasters that no longer
+ * match the list's filter are removed, and new matching disasters are
+ * inserted at their sorted position.</p>
+ *
+ * <p>
+ * When only some pages of a listing are loaded, a changed disaster that sorts
+ * after the last loaded row is left out; it arrives with its page once the
+ * table is scrolled that far.</p>
+ *
+ * @see disasterresponse.dao.DisasterDAO#getDisastersChangedSince(LocalDateTime)
+ * @see PagedTableLoader
+ *
+ * @author 12236202
+ */
+public class DisasterListStore {
+
+    private final List<Disaster> rows;
+    private final Predicate<Disaster> filter;
+    private final Comparator<? super Disaster> order;
+
+    private LocalDateTime watermark;
+
+    /**
+     * Constructs a new {@code DisasterListStore}.
+     *
+     * @param rows The list to keep up to date, typically the items of a table.
+     * @param filter The disasters that belong in the list.
+     * @param order The order of the list, or {@code null} if new disasters are
+     * appended and changed disasters keep their place.
+     */
+    public DisasterListStore(List<Disaster> rows, Predicate<Disaster> filter, Comparator<? super Disaster> order) {
+        this.rows = rows;
+        this.filter = filter;
+        this.order = order;
+    }
+
+    /**
+     * Forgets the watermark, for example before the list is reloaded in full.
+     */
+    public void reset() {
+        watermark = null;
+    }
+
+    /**
+     * Advances the watermark past disasters that were loaded into the list
+     * outside of {@link #merge(List, boolean)}, such as a page of the listing.
+     *
+     * @param loaded The disasters that were loaded.
+     */
+    public void track(List<Disaster> loaded) {
+        for (Disaster disaster : loaded) {
+            LocalDateTime updatedAt = disaster.getUpdatedAt();
+            if (updatedAt != null && (watermark == null || updatedAt.isAfter(watermark))) {
+                watermark = updatedAt;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the store has a watermark to refresh from. Without one,
+     * the list has to be loaded in full.
+     *
+     * @return {@code true} if {@link #getRefreshFrom()} can be used.
+     */
+    public boolean canRefresh() {
+        return watermark != null;
+    }
+
+    /**
+     * Gets the change time the next refresh should read from.
+     *
+     * @return The watermark, less {@link DatabaseUtil#CHANGE_OVERLAP_SECONDS}.
+     * A transaction that commits late can carry an {@code updated_at} older
+     * than rows already seen, and merging a row a second time is harmless.
+     */
+    public LocalDateTime getRefreshFrom() {
+        return watermark.minusSeconds(DatabaseUtil.CHANGE_OVERLAP_SECONDS);
+    }
+
+    /**
+     * Merges changed disasters into the list and advances the watermark.
+     *
+     * @param changes The disasters changed since the last refresh, of any
+     * status.
+     * @param complete {@code true} if the list holds the whole listing, so
+     * that a new disaster belongs in it wherever it sorts.
+     */
+    public void merge(List<Disaster> changes, boolean complete) {
+        track(changes);
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Disaster> changed = new HashMap<>();
+        for (Disaster disaster : changes) {
+            changed.put(disaster.getId(), disaster);
+        }
+
+        if (order == null) {
+            mergeInPlace(changed, complete);
+        } else {
+            mergeSorted(changed, complete);
+        }
+    }
+
+    private void mergeInPlace(Map<Integer, Disaster> changed, boolean complete) {
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            Disaster current = changed.remove(rows.get(i).getId());
+            if (current == null) {
+                continue;
+            }
+            if (filter.test(current)) {
+                rows.set(i, current);
+            } else {
+                rows.remove(i);
+            }
+        }
+
+        if (complete) {
+            // Whatever is left was not in the list yet
+            List<Disaster> added = new ArrayList<>();
+            for (Disaster disaster : changed.values()) {
+                if (filter.test(disaster)) {
+                    added.add(disaster);
+                }
+            }
+            added.sort(Comparator.comparingInt(Disaster::getId));
+            rows.addAll(added);
+        }
+    }
+
+    private void mergeSorted(Map<Integer, Disaster> changed, boolean complete) {
+        // The last loaded row bounds the loaded part of the listing
+        Disaster lastLoaded = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+
+        // Take out the old copies first, then place every current copy anew
+        rows.removeIf(disaster -> changed.containsKey(disaster.getId()));
+
+        for (Disaster disaster : changed.values()) {
+            if (!filter.test(disaster)) {
+                continue;
+            }
+            if (!complete && (lastLoaded == null || order.compare(disaster, lastLoaded) > 0)) {
+                continue;
+            }
+            int index = Collections.binarySearch(rows, disaster, order);
+            rows.add(index < 0 ? -index - 1 : index, disaster);
+        }
+    }
+}
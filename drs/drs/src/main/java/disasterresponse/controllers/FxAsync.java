@@ -0,0 +1,114 @@
+package disasterresponse.controllers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+
+/**
+ * The {@code FxAsync} class hands the results of background service calls back
+ * to the JavaFX Application Thread. Controllers start a service call through one
+ * of the {@code Async} service methods and use this class to update their
+ * controls once the data has arrived.
+ *
+ * <p>
+ * While a table is loading, its placeholder is replaced with a progress
+ * indicator so that the window stays responsive instead of freezing.</p>
+ *
+ * @see disasterresponse.services.ServiceExecutor
+ *
+ * @author 12236202
+ */
+public final class FxAsync {
+
+    private static final String ORIGINAL_PLACEHOLDER = "fxasync.originalPlaceholder";
+
+    private FxAsync() {
+    }
+
+    /**
+     * Runs the given callback on the JavaFX Application Thread once the future
+     * completes successfully. Failures are printed, as the synchronous service
+     * methods do.
+     *
+     * @param <T> The type of the result.
+     * @param future The pending service call.
+     * @param onSuccess The callback that receives the result.
+     */
+    public static <T> void onFx(CompletableFuture<T> future, Consumer<? super T> onSuccess) {
+        onFx(future, onSuccess, error -> error.printStackTrace());
+    }
+
+    /**
+     * Runs one of the given callbacks on the JavaFX Application Thread once the
+     * future completes.
+     *
+     * @param <T> The type of the result.
+     * @param future The pending service call.
+     * @param onSuccess The callback that receives the result.
+     * @param onError The callback that receives the failure.
+     */
+    public static <T> void onFx(CompletableFuture<T> future, Consumer<? super T> onSuccess, Consumer<Throwable> onError) {
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                onError.accept(error);
+            } else {
+                onSuccess.accept(result);
+            }
+        }));
+    }
+
+    /**
+     * Shows a progress indicator in the table while the future is pending and
+     * passes the result to the callback on the JavaFX Application Thread.
+     *
+     * @param <T> The type of the result.
+     * @param table The table being loaded.
+     * @param future The pending service call.
+     * @param onLoaded The callback that receives the result, typically to set
+     * the table items.
+     */
+    public static <T> void loadInto(TableView<?> table, CompletableFuture<T> future, Consumer<? super T> onLoaded) {
+        loadInto(table, future, onLoaded, error -> {
+            // The failure is already shown in the table
+        });
+    }
+
+    /**
+     * Shows a progress indicator in the table while the future is pending and
+     * passes the result or the failure to the matching callback on the JavaFX
+     * Application Thread.
+     *
+     * @param <T> The type of the result.
+     * @param table The table being loaded.
+     * @param future The pending service call.
+     * @param onLoaded The callback that receives the result, typically to set
+     * the table items.
+     * @param onError The callback that runs after the failure has been shown
+     * in the table.
+     */
+    public static <T> void loadInto(TableView<?> table, CompletableFuture<T> future, Consumer<? super T> onLoaded,
+            Consumer<Throwable> onError) {
+        // Remember the FXML placeholder once, so overlapping loads do not restore a spinner
+        if (!table.getProperties().containsKey(ORIGINAL_PLACEHOLDER)) {
+            table.getProperties().put(ORIGINAL_PLACEHOLDER, table.getPlaceholder());
+        }
+        Node placeholder = (Node) table.getProperties().get(ORIGINAL_PLACEHOLDER);
+
+        ProgressIndicator progressIndicator = new ProgressIndicator();
+        progressIndicator.setMaxSize(40, 40);
+        table.setPlaceholder(progressIndicator);
+
+        onFx(future, result -> {
+            table.setPlaceholder(placeholder);
+            onLoaded.accept(result);
+        }, error -> {
+            error.printStackTrace();
+            table.setPlaceholder(new Label("Could not load data."));
+            onError.accept(error);
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package disasterresponse.controllers;
 
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
@@ -44,6 +45,9 @@ public class LoginController {
     @FXML
     private Label validationLabel;
 
+    @FXML
+    private Button signInButton;
+
     private UserService userService;
 
     /**
@@ -56,9 +60,9 @@ public class LoginController {
 
     /**
      * Handles the sign-in process. Validates the username and password input
-     * fields, and calls the {@code UserService} to validate the credentials. If
-     * the login is successful, it loads the dashboard. Otherwise, an error
-     * message is displayed.
+     * fields, and calls the {@code UserService} to validate the credentials in
+     * the background while the form is disabled. If the login is successful, it
+     * loads the dashboard. Otherwise, an error message is displayed.
      */
     @FXML
     private void handleSignIn() {
@@ -70,18 +74,38 @@ public class LoginController {
             validationLabel.setText("Username or password cannot be empty.");
             validationLabel.setVisible(true);
         } else {
-            // Call the user service to check credentials
-            boolean isValid = userService.validateUser(username, password);
+            validationLabel.setVisible(false);
+            setFormDisabled(true);
 
-            if (isValid) {
-                loadDashboard();
-            } else {
-                validationLabel.setText("Invalid username or password.");
+            // Call the user service to check credentials
+            FxAsync.onFx(userService.validateUserAsync(username, password), isValid -> {
+                if (isValid) {
+                    loadDashboard();
+                } else {
+                    setFormDisabled(false);
+                    validationLabel.setText("Invalid username or password.");
+                    validationLabel.setVisible(true);
+                }
+            }, error -> {
+                error.printStackTrace();
+                setFormDisabled(false);
+                validationLabel.setText("Unable to sign in. Please try again.");
                 validationLabel.setVisible(true);
-            }
+            });
         }
     }
 
+    /**
+     * Enables or disables the login form while credentials are being checked.
+     *
+     * @param disabled {@code true} to disable the form.
+     */
+    private void setFormDisabled(boolean disabled) {
+        usernameField.setDisable(disabled);
+        passwordField.setDisable(disabled);
+        signInButton.setDisable(disabled);
+    }
+
     /**
      * Loads the dashboard screen if the login is successful. Transitions from
      * the login screen to the dashboard by replacing the current scene with the
@@ -0,0 +1,208 @@
+package disasterresponse.controllers;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+/**
+ * The {@code PagedTableLoader} class fills a {@code TableView} one page at a
+ * time. The first page is loaded by {@link #reload()}; further pages are
+ * fetched when the user scrolls to the bottom of the table, or straight away
+ * while the loaded rows do not fill it.
+ *
+ * <p>
+ * Pages are requested through a {@link PageFetcher}, which receives the last
+ * row of the previous page so that it can build a keyset cursor. Loading stops
+ * once a page comes back shorter than the page size.</p>
+ *
+ * @param <T> The type of the table rows.
+ *
+ * @see FxAsync
+ *
+ * @author 12236202
+ */
+public class PagedTableLoader<T> {
+
+    /**
+     * Fetches one page of rows in the background.
+     *
+     * @param <T> The type of the rows.
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+
+        /**
+         * Fetches the page that follows the given row.
+         *
+         * @param lastRow The last row of the previous page, or {@code null}
+         * for the first page.
+         * @param pageSize The maximum number of rows to fetch.
+         * @return A future completed with the rows of the page.
+         */
+        CompletableFuture<List<T>> fetchPage(T lastRow, int pageSize);
+    }
+
+    private final TableView<T> table;
+    private final int pageSize;
+    private final PageFetcher<T> fetcher;
+    private Consumer<List<T>> onPageLoaded = page -> {
+    };
+
+    private T lastFetchedRow;
+    private boolean loading;
+    private boolean exhausted;
+    private int generation;
+
+    /**
+     * Constructs a new {@code PagedTableLoader} and starts watching for the
+     * bottom of the table to come into view.
+     *
+     * @param table The table to fill.
+     * @param pageSize The number of rows to fetch per page.
+     * @param fetcher The source of the pages.
+     */
+    public PagedTableLoader(TableView<T> table, int pageSize, PageFetcher<T> fetcher) {
+        this.table = table;
+        this.pageSize = pageSize;
+        this.fetcher = fetcher;
+
+        onScrolledToBottom(table, this::loadNextPage);
+    }
+
+    /**
+     * Runs an action each time the table is scrolled to the bottom, and after
+     * each layout while its rows do not fill it, as there is then nothing to
+     * scroll. The action must ignore calls while it is already loading.
+     *
+     * @param table The table to watch.
+     * @param action The action to run, typically loading the next page.
+     */
+    public static void onScrolledToBottom(TableView<?> table, Runnable action) {
+        BottomWatcher watcher = new BottomWatcher(table, action);
+        table.needsLayoutProperty().addListener(watcher);
+        watcher.check();
+    }
+
+    /**
+     * Sets a callback that receives each page once its rows have been added to
+     * the table.
+     *
+     * @param onPageLoaded The callback that receives the page.
+     */
+    public void setOnPageLoaded(Consumer<List<T>> onPageLoaded) {
+        this.onPageLoaded = onPageLoaded;
+    }
+
+    /**
+     * Discards the loaded rows and loads the first page again. The table keeps
+     * its items list, so other holders of the list see the reload.
+     */
+    public void reload() {
+        generation++;
+        lastFetchedRow = null;
+        loading = false;
+        exhausted = false;
+        table.getItems().clear();
+        loadNextPage();
+    }
+
+    /**
+     * Loads the next page, unless a page is already loading or the last page
+     * has been reached.
+     */
+    public void loadNextPage() {
+        if (loading || exhausted) {
+            return;
+        }
+        loading = true;
+        int requestGeneration = generation;
+
+        FxAsync.loadInto(table, fetcher.fetchPage(lastFetchedRow, pageSize), page -> {
+            // Ignore pages requested before the last reload
+            if (requestGeneration != generation) {
+                return;
+            }
+            loading = false;
+            if (page.size() < pageSize) {
+                exhausted = true;
+            }
+            if (!page.isEmpty()) {
+                lastFetchedRow = page.get(page.size() - 1);
+                table.getItems().addAll(page);
+            }
+            onPageLoaded.accept(page);
+        }, error -> {
+            if (requestGeneration == generation) {
+                loading = false;
+            }
+        });
+    }
+
+    /**
+     * Checks whether every page has been loaded.
+     *
+     * @return {@code true} if the last page has been reached.
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * Watches a table's vertical scroll bar once its skin has created it, and
+     * runs the action when the bar reaches the bottom or is not shown. The
+     * bar is looked up again after every layout, as it only exists once the
+     * table has a skin and may be replaced with the skin.
+     */
+    private static final class BottomWatcher implements ChangeListener<Boolean> {
+
+        private final TableView<?> table;
+        private final Runnable action;
+        private ScrollBar watched;
+
+        private BottomWatcher(TableView<?> table, Runnable action) {
+            this.table = table;
+            this.action = action;
+        }
+
+        @Override
+        public void changed(ObservableValue<? extends Boolean> observable, Boolean wasNeeded, Boolean needed) {
+            if (!needed) {
+                check();
+            }
+        }
+
+        private void check() {
+            ScrollBar scrollBar = findVerticalScrollBar();
+            if (scrollBar == null) {
+                return;
+            }
+            if (scrollBar != watched) {
+                watched = scrollBar;
+                scrollBar.valueProperty().addListener((observable, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= scrollBar.getMax()) {
+                        action.run();
+                    }
+                });
+            }
+            // The rows fit, so the bottom is already showing
+            if (!scrollBar.isVisible()) {
+                action.run();
+            }
+        }
+
+        private ScrollBar findVerticalScrollBar() {
+            for (Node node : table.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar scrollBar && scrollBar.getOrientation() == Orientation.VERTICAL) {
+                    return scrollBar;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package disasterresponse.controllers;
+
+import disasterresponse.models.PendingRequest;
+import disasterresponse.services.DisasterService;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.ButtonType;
+
+/**
+ * The {@code PendingRequestsController} class manages the pending-request
+ * inbox. The inbox lists the resource requests of every open and in-progress
+ * disaster that are still waiting for a decision, so a department
+ * administrator can work through them without selecting each disaster in
+ * turn.
+ *
+ * <p>
+ * Requests are shown by the priority of their disaster, highest first, and
+ * then oldest first. Several requests can be selected and approved or
+ * rejected together in one transaction.</p>
+ *
+ * @see DisasterService#getPendingRequestInbox()
+ * @see PendingRequest
+ * @see SendInitialResourcesController
+ *
+ * @author 12236202
+ */
+public class PendingRequestsController {
+
+    @FXML
+    private TableView<PendingRequest> requestTable;
+
+    @FXML
+    private TableColumn<PendingRequest, Integer> priorityColumn;
+
+    @FXML
+    private TableColumn<PendingRequest, String> disasterTypeColumn;
+
+    @FXML
+    private TableColumn<PendingRequest, String> locationColumn;
+
+    @FXML
+    private TableColumn<PendingRequest, String> statusColumn;
+
+    @FXML
+    private TableColumn<PendingRequest, LocalDateTime> timeOfRequestColumn;
+
+    @FXML
+    private TableColumn<PendingRequest, String> departmentColumn;
+
+    @FXML
+    private TableColumn<PendingRequest, String> messageColumn;
+
+    @FXML
+    private Button approveButton;
+
+    @FXML
+    private Button rejectButton;
+
+    private final DisasterService disasterService;
+
+    /**
+     * Constructor for {@code PendingRequestsController}. Initializes the
+     * {@code DisasterService} instance used to read and decide requests.
+     */
+    public PendingRequestsController() {
+        this.disasterService = new DisasterService();
+    }
+
+    /**
+     * Initializes the controller, sets up the table columns and loads the
+     * inbox. The approve and reject buttons are enabled while requests are
+     * selected.
+     */
+    @FXML
+    public void initialize() {
+        // Set up the table columns to show the request and its disaster
+        priorityColumn.setCellValueFactory(new PropertyValueFactory<>("priority"));
+        disasterTypeColumn.setCellValueFactory(new PropertyValueFactory<>("disasterType"));
+        locationColumn.setCellValueFactory(new PropertyValueFactory<>("location"));
+        statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
+        timeOfRequestColumn.setCellValueFactory(new PropertyValueFactory<>("messageTime"));
+        departmentColumn.setCellValueFactory(new PropertyValueFactory<>("departmentName"));
+        messageColumn.setCellValueFactory(new PropertyValueFactory<>("message"));
+
+        requestTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        requestTable.getSelectionModel().selectedItemProperty().addListener((observable, oldRequest, newRequest) -> {
+            approveButton.setDisable(newRequest == null);
+            rejectButton.setDisable(newRequest == null);
+        });
+
+        loadRequests();
+    }
+
+    /**
+     * Loads the pending requests of all active disasters in the background
+     * and populates the request table.
+     */
+    private void loadRequests() {
+        FxAsync.loadInto(requestTable, disasterService.getPendingRequestInboxAsync(),
+                requests -> requestTable.getItems().setAll(requests));
+    }
+
+    /**
+     * Handles the refresh button click event, reloading the inbox.
+     */
+    @FXML
+    private void handleRefresh() {
+        loadRequests();
+    }
+
+    /**
+     * Approves the selected requests. An "[APPROVE]" message is recorded for
+     * each, their approval status is set to 1 (approved), and they are
+     * removed from the inbox.
+     */
+    @FXML
+    private void handleApprove() {
+        decideSelectedRequests("Approve Request", "approve", "approved", 1);
+    }
+
+    /**
+     * Rejects the selected requests. A "[REJECT]" message is recorded for
+     * each, their approval status is set to 0 (rejected), and they are
+     * removed from the inbox.
+     */
+    @FXML
+    private void handleReject() {
+        decideSelectedRequests("Reject Request", "reject", "rejected", 0);
+    }
+
+    /**
+     * Asks once for confirmation and then records one decision on every
+     * selected request.
+     *
+     * @param title The title of the confirmation dialog.
+     * @param verb The decision, as used in the confirmation question.
+     * @param pastTense The decision, as used in the message shown if some
+     * requests had already been decided or the decision failed.
+     * @param approvalStatus The new approval status.
+     */
+    private void decideSelectedRequests(String title, String verb, String pastTense, int approvalStatus) {
+        List<PendingRequest> selectedRequests = new ArrayList<>(requestTable.getSelectionModel().getSelectedItems());
+        if (selectedRequests.isEmpty()) {
+            return;
+        }
+
+        Alert alert = new Alert(AlertType.CONFIRMATION);
+        alert.setTitle(title);
+        alert.setHeaderText(selectedRequests.size() == 1
+                ? "Are you sure you want to " + verb + " this request?"
+                : "Are you sure you want to " + verb + " these " + selectedRequests.size() + " requests?");
+        Optional<ButtonType> result = alert.showAndWait();
+
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            int decided;
+            try {
+                decided = disasterService.decidePendingRequests(selectedRequests, approvalStatus);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                // Nothing was decided, so the requests stay in the inbox
+                Alert errorAlert = new Alert(AlertType.ERROR);
+                errorAlert.setTitle(title);
+                errorAlert.setHeaderText(null);
+                errorAlert.setContentText(SendInitialResourcesController.decisionFailure(selectedRequests.size(), pastTense));
+                errorAlert.showAndWait();
+                return;
+            }
+            // The rest were found already decided by someone else, so none
+            // of the selected requests is pending any more
+            requestTable.getItems().removeAll(selectedRequests);
+
+            if (decided < selectedRequests.size()) {
+                Alert infoAlert = new Alert(AlertType.INFORMATION);
+                infoAlert.setTitle(title);
+                infoAlert.setHeaderText(null);
+                infoAlert.setContentText(SendInitialResourcesController.decisionSummary(decided, selectedRequests.size(), pastTense));
+                infoAlert.showAndWait();
+            }
+        }
+    }
+}
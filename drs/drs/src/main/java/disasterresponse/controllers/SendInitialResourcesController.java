@@ -2,16 +2,20 @@ package disasterresponse.controllers;
 
 import disasterresponse.models.Disaster;
 import disasterresponse.models.DisasterMessage;
+import disasterresponse.models.PriorityCursor;
+import disasterresponse.priority.PriorityEngine;
 import disasterresponse.services.DisasterService;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.control.TableRow;
+import javafx.scene.control.SelectionMode;
 
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
@@ -83,7 +87,26 @@ public class SendInitialResourcesController {
     @FXML
     private TableView<DisasterMessage> messageTable;
 
+    private static final int PAGE_SIZE = 50;
+
+    /**
+     * The order the disaster listing is served in by
+     * {@code DisasterService.getDisastersByPriority}. Disasters are ranked by
+     * their priority as of the moment the listing was loaded, not the
+     * priority shown, which the {@link UiTicker} moves on. The loaded rows
+     * then stay in the order the next page continues from.
+     */
+    private final Comparator<Disaster> listingOrder = Comparator
+            .comparingInt((Disaster disaster) -> PriorityCursor.statusRank(disaster.getStatus()))
+            .thenComparing(Comparator.comparingInt(this::rankedPriority).reversed())
+            .thenComparing(Comparator.comparingInt(Disaster::getId).reversed());
+
     private final DisasterService disasterService;
+    private final PriorityEngine priorityEngine = PriorityEngine.getInstance();
+
+    private PagedTableLoader<Disaster> disasterPager;
+    private DisasterListStore disasterStore;
+    private LocalDateTime rankedAt;
 
     /**
      * Constructor for {@code SendInitialResourcesController}. Initializes the
@@ -109,9 +132,25 @@ public class SendInitialResourcesController {
         timeSinceColumn.setCellValueFactory(new PropertyValueFactory<>("timeSinceReporting"));
         statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
 
-        // Load disasters into the table
+        // Load disasters by status (Open, In Progress, Closed), then priority,
+        // a page at a time as the table is scrolled
+        disasterPager = new PagedTableLoader<>(disasterTable, PAGE_SIZE, (lastRow, pageSize) -> {
+            // Rank every page of one listing as of the same moment, whatever
+            // priority the ticker has since moved the loaded rows to
+            PriorityCursor after = lastRow == null
+                    ? PriorityCursor.first(rankedAt)
+                    : new PriorityCursor(rankedAt, PriorityCursor.statusRank(lastRow.getStatus()), rankedPriority(lastRow), lastRow.getId());
+            return disasterService.getDisastersByPriorityAsync("ALL", after, pageSize);
+        });
+
+        // Keep the loaded disasters up to date by merging in only what changed
+        disasterStore = new DisasterListStore(disasterTable.getItems(), disaster -> true, listingOrder);
+        disasterPager.setOnPageLoaded(disasterStore::track);
         loadDisasters();
 
+        // Keep the time since reporting and priority current between refreshes
+        UiTicker.getInstance().register(disasterTable);
+
         // Enable button when an "Open" status disaster is selected
         disasterTable.setRowFactory(tv -> {
             TableRow<Disaster> row = new TableRow<>();
@@ -145,7 +184,9 @@ public class SendInitialResourcesController {
             return row;
         });
 
-        // Set behavior for selecting a disaster message
+        // Set behavior for selecting disaster messages; several requests can
+        // be approved or rejected at once
+        messageTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         messageTable.setRowFactory(tv -> {
             TableRow<DisasterMessage> row = new TableRow<>();
             row.setOnMouseClicked(event -> {
@@ -159,18 +200,39 @@ public class SendInitialResourcesController {
     }
 
     /**
-     * Loads disasters from the service, sorts them by status (Open, In
-     * Progress, Closed) and then by priority, and populates the disaster table.
+     * Loads the first page of disasters from the service, sorted by status
+     * (Open, In Progress, Closed) and then by priority, and populates the
+     * disaster table. Lower priority disasters are loaded as the table is
+     * scrolled.
      */
     private void loadDisasters() {
-        List<Disaster> disasters = disasterService.getAllDisasters();
+        rankedAt = LocalDateTime.now();
+        disasterStore.reset();
+        disasterPager.reload();
+    }
 
-        // Sort by status: Open first, In Progress next, and Closed last
-        disasters.sort(Comparator.comparing(Disaster::getStatus)
-                .thenComparing(Comparator.comparing(Disaster::getPriority).reversed()));
+    /**
+     * Gets a disaster's priority as of the moment the listing was loaded.
+     *
+     * @param disaster A disaster in the listing.
+     * @return The priority the listing ranks the disaster by.
+     */
+    private int rankedPriority(Disaster disaster) {
+        return priorityEngine.score(disaster, rankedAt);
+    }
 
-        ObservableList<Disaster> disasterData = FXCollections.observableArrayList(disasters);
-        disasterTable.setItems(disasterData);
+    /**
+     * Merges the disasters that changed since they were loaded into the
+     * disaster table. The table is loaded in full only if nothing has been
+     * loaded yet.
+     */
+    private void refreshDisasters() {
+        if (!disasterStore.canRefresh()) {
+            loadDisasters();
+            return;
+        }
+        FxAsync.onFx(disasterService.getDisastersChangedSinceAsync(disasterStore.getRefreshFrom()),
+                changes -> disasterStore.merge(changes, disasterPager.isExhausted()));
     }
 
     /**
@@ -198,7 +260,7 @@ public class SendInitialResourcesController {
                 sendResourcesButton.setDisable(true);
                 approveButton.setDisable(true);
                 rejectButton.setDisable(true);
-                loadDisasters();// Refresh the disaster table
+                refreshDisasters();// Refresh the disaster table
             });
         }
     }
@@ -230,17 +292,18 @@ public class SendInitialResourcesController {
                 closeDisasterButton.setDisable(true);
                 approveButton.setDisable(true);
                 rejectButton.setDisable(true);
-                loadDisasters();  // Refresh the table
+                refreshDisasters();  // Refresh the table
             });
         }
     }
 
     /**
-     * Reloads the list of disasters and refreshes the disaster table.
+     * Refreshes the disaster table with the disasters that changed since they
+     * were loaded.
      */
     @FXML
     private void handleRefresh() {
-        loadDisasters();
+        refreshDisasters();
     }
 
     /**
@@ -249,70 +312,121 @@ public class SendInitialResourcesController {
      * @param disasterId the ID of the selected disaster
      */
     private void loadDisasterMessages(int disasterId) {
-        List<DisasterMessage> requestMessages = disasterService.getRequestMessagesByDisasterId(disasterId, "[REQUEST]");
-        messageTable.getItems().setAll(requestMessages);
+        FxAsync.loadInto(messageTable, disasterService.getPendingRequestsAsync(disasterId), requestMessages -> {
+            // Drop the result if another disaster was selected while it was loading
+            Disaster selectedDisaster = disasterTable.getSelectionModel().getSelectedItem();
+            if (selectedDisaster == null || selectedDisaster.getId() == disasterId) {
+                messageTable.getItems().setAll(requestMessages);
+            }
+        });
     }
 
     /**
-     * Approves the selected disaster message. The message is updated with an
-     * "[APPROVE]" prefix, and the disaster message approval status is set to 1
-     * (approved).
+     * Approves the selected disaster messages. An "[APPROVE]" message is
+     * recorded for each, and their approval status is set to 1 (approved).
+     * All selected requests are approved together in one transaction.
      */
     @FXML
     private void handleApprove() {
-        DisasterMessage selectedMessage = messageTable.getSelectionModel().getSelectedItem();
-        if (selectedMessage != null) {
-            selectedMessage.setDisasterId(disasterTable.getSelectionModel().getSelectedItem().getId());
-            // Show confirmation dialog
-            Alert alert = new Alert(AlertType.CONFIRMATION);
-            alert.setTitle("Approve Request");
-            alert.setHeaderText("Are you sure you want to approve this request?");
-            Optional<ButtonType> result = alert.showAndWait();
-
-            // If confirmed, approve the request
-            if (result.isPresent() && result.get() == ButtonType.OK) {
-                // Show an alert with the approval message
-                Alert infoAlert = new Alert(AlertType.INFORMATION);
-                infoAlert.setTitle("Approval");
-                infoAlert.setHeaderText(null);
-                infoAlert.setContentText("Request approved successfully.");
-                infoAlert.showAndWait();
-
-                // Prefix message with [APPROVE] and update approval status to 1
-                disasterService.updateDisasterMessageStatus(selectedMessage, "[APPROVE]", 1);
-                messageTable.getItems().clear();
-            }
-        }
+        decideSelectedMessages("Approve Request", "approve", "Approval", "approved", 1);
     }
 
     /**
-     * Rejects the selected disaster message. The message is updated with a
-     * "[REJECT]" prefix, and the disaster message approval status is set to 0
-     * (rejected).
+     * Rejects the selected disaster messages. A "[REJECT]" message is
+     * recorded for each, and their approval status is set to 0 (rejected).
+     * All selected requests are rejected together in one transaction.
      */
     @FXML
     private void handleReject() {
-        DisasterMessage selectedMessage = messageTable.getSelectionModel().getSelectedItem();
-        if (selectedMessage != null) {
-            selectedMessage.setDisasterId(disasterTable.getSelectionModel().getSelectedItem().getId());
-            // Show confirmation dialog
-            Alert alert = new Alert(AlertType.CONFIRMATION);
-            alert.setTitle("Reject Request");
-            alert.setHeaderText("Are you sure you want to reject this request?");
-            Optional<ButtonType> result = alert.showAndWait();
-
-            if (result.isPresent() && result.get() == ButtonType.OK) {
-                // Show an alert with the rejection message
-                Alert infoAlert = new Alert(AlertType.INFORMATION);
-                infoAlert.setTitle("Rejection");
-                infoAlert.setHeaderText(null);
-                infoAlert.setContentText("Request rejected successfully.");
-                infoAlert.showAndWait();
-
-                // Prefix message with [REJECT] and update approval status to 0
-                disasterService.updateDisasterMessageStatus(selectedMessage, "[REJECT]", 0);
-                messageTable.getItems().clear();
+        decideSelectedMessages("Reject Request", "reject", "Rejection", "rejected", 0);
+    }
+
+    /**
+     * Asks once for confirmation and then records one decision on every
+     * selected request.
+     *
+     * @param title The title of the confirmation dialog.
+     * @param verb The decision, as used in the confirmation question.
+     * @param resultTitle The title of the dialog shown afterwards.
+     * @param pastTense The decision, as used in the message shown afterwards.
+     * @param approvalStatus The new approval status.
+     */
+    private void decideSelectedMessages(String title, String verb, String resultTitle, String pastTense, int approvalStatus) {
+        List<DisasterMessage> selectedMessages = new ArrayList<>(messageTable.getSelectionModel().getSelectedItems());
+        if (selectedMessages.isEmpty()) {
+            return;
+        }
+        int disasterId = disasterTable.getSelectionModel().getSelectedItem().getId();
+        for (DisasterMessage selectedMessage : selectedMessages) {
+            selectedMessage.setDisasterId(disasterId);
+        }
+
+        // Show confirmation dialog
+        Alert alert = new Alert(AlertType.CONFIRMATION);
+        alert.setTitle(title);
+        alert.setHeaderText(selectedMessages.size() == 1
+                ? "Are you sure you want to " + verb + " this request?"
+                : "Are you sure you want to " + verb + " these " + selectedMessages.size() + " requests?");
+        Optional<ButtonType> result = alert.showAndWait();
+
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            int decided;
+            try {
+                decided = disasterService.updateDisasterMessageStatuses(selectedMessages, approvalStatus).size();
+            } catch (SQLException e) {
+                e.printStackTrace();
+                // Nothing was decided, so the requests stay in the list
+                Alert errorAlert = new Alert(AlertType.ERROR);
+                errorAlert.setTitle(resultTitle);
+                errorAlert.setHeaderText(null);
+                errorAlert.setContentText(decisionFailure(selectedMessages.size(), pastTense));
+                errorAlert.showAndWait();
+                return;
             }
+            // The rest were found already decided by someone else, so none
+            // of the selected requests is pending any more
+            messageTable.getItems().removeAll(selectedMessages);
+
+            // Show an alert with the result
+            Alert infoAlert = new Alert(AlertType.INFORMATION);
+            infoAlert.setTitle(resultTitle);
+            infoAlert.setHeaderText(null);
+            infoAlert.setContentText(decisionSummary(decided, selectedMessages.size(), pastTense));
+            infoAlert.showAndWait();
+        }
+    }
+
+    /**
+     * Describes a failure to record a decision on a selection of requests.
+     *
+     * @param selected The number of requests selected.
+     * @param pastTense The decision, such as "approved".
+     * @return The message to show.
+     */
+    static String decisionFailure(int selected, String pastTense) {
+        return (selected == 1
+                ? "The request could not be " + pastTense + "."
+                : "The " + selected + " requests could not be " + pastTense + ".")
+                + " Nothing was changed. Please try again.";
+    }
+
+    /**
+     * Describes the outcome of deciding a selection of requests.
+     *
+     * @param decided The number of requests this user decided.
+     * @param selected The number of requests selected.
+     * @param pastTense The decision, such as "approved".
+     * @return The message to show.
+     */
+    static String decisionSummary(int decided, int selected, String pastTense) {
+        if (decided == selected) {
+            return selected == 1
+                    ? "Request " + pastTense + " successfully."
+                    : selected + " requests " + pastTense + " successfully.";
         }
+        String summary = decided + " of " + selected + " requests " + pastTense + ". ";
+        return summary + (selected - decided == 1
+                ? "The other request had already been decided by another administrator."
+                : "The other " + (selected - decided) + " requests had already been decided by another administrator.");
     }
 }
@@ -0,0 +1,100 @@
+package disasterresponse.controllers;
+
+import disasterresponse.models.DisasterMessage;
+import disasterresponse.services.DisasterService;
+import disasterresponse.services.MessageTimeline;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javafx.scene.control.TableView;
+
+/**
+ * The {@code TimelineTableLoader} class shows a disaster's message timeline in
+ * a {@code TableView}, newest first. Selecting a disaster shows its cached
+ * timeline straight away and then fetches only the messages posted since;
+ * older messages are loaded a page at a time as the table is scrolled to the
+ * bottom.
+ *
+ * @see MessageTimeline
+ * @see PagedTableLoader
+ *
+ * @author 12236202
+ */
+public class TimelineTableLoader {
+
+    private final TableView<DisasterMessage> table;
+    private final DisasterService disasterService;
+    private final int pageSize;
+
+    private MessageTimeline timeline;
+    private boolean loadingOlder;
+
+    /**
+     * Constructs a new {@code TimelineTableLoader} and starts watching the
+     * table's vertical scroll bar.
+     *
+     * @param table The table to fill.
+     * @param disasterService The service the messages are loaded through.
+     * @param pageSize The number of older messages to load per page.
+     */
+    public TimelineTableLoader(TableView<DisasterMessage> table, DisasterService disasterService, int pageSize) {
+        this.table = table;
+        this.disasterService = disasterService;
+        this.pageSize = pageSize;
+
+        PagedTableLoader.onScrolledToBottom(table, this::loadOlder);
+    }
+
+    /**
+     * Shows the timeline of a disaster and fetches the messages posted since
+     * it was last synced. For a disaster not seen before, this loads its
+     * latest page.
+     *
+     * @param disasterId The ID of the disaster.
+     */
+    public void show(int disasterId) {
+        if (timeline == null || timeline.getDisasterId() != disasterId) {
+            timeline = disasterService.getTimeline(disasterId);
+            loadingOlder = false;
+            table.getItems().setAll(timeline.getMessages());
+        }
+        load(timeline, disasterService.syncTimelineAsync(timeline), false);
+    }
+
+    /**
+     * Clears the table until another disaster is shown.
+     */
+    public void clear() {
+        timeline = null;
+        table.getItems().clear();
+    }
+
+    private void loadOlder() {
+        if (timeline == null || loadingOlder || !timeline.isStarted() || timeline.isFullyLoaded()) {
+            return;
+        }
+        loadingOlder = true;
+        load(timeline, disasterService.loadOlderMessagesAsync(timeline, pageSize), true);
+    }
+
+    private void load(MessageTimeline requested, CompletableFuture<List<DisasterMessage>> future, boolean older) {
+        FxAsync.loadInto(table, future, newMessages -> {
+            // Drop the result if another disaster was selected while it was loading
+            if (requested != timeline) {
+                return;
+            }
+            if (older) {
+                loadingOlder = false;
+            }
+            MessageTimeline.insertInOrder(table.getItems(), newMessages);
+
+            // Messages added by another view or written through are not in newMessages
+            if (table.getItems().size() != requested.size()) {
+                table.getItems().setAll(requested.getMessages());
+            }
+        }, error -> {
+            if (older && requested == timeline) {
+                loadingOlder = false;
+            }
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package disasterresponse.controllers;
+
+import disasterresponse.models.Disaster;
+import disasterresponse.priority.PriorityEngine;
+import java.lang.ref.WeakReference;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.control.TableView;
+import javafx.util.Duration;
+
+/**
+ * The {@code UiTicker} class keeps the time since reporting and priority
+ * columns of the disaster tables current without querying the database
+ * again.
+ *
+ * <p>
+ * Both columns are derived from each disaster's stored report time and the
+ * clock reading it was loaded at. Once a minute the ticker moves every row of
+ * the registered tables to a new clock reading, scores their priorities in
+ * one batch and redraws the tables.</p>
+ *
+ * <p>
+ * Rows are not re-sorted. A table kept in priority order must rank its rows
+ * by their priority as of the moment its listing was loaded, so that the rows
+ * stay in the order its next page continues from.</p>
+ *
+ * <p>
+ * This class uses the Singleton pattern so that one timer serves every open
+ * table. Tables are held through weak references, so a view that has been
+ * closed is dropped without having to unregister it, and the timer stops when
+ * no table is left. It must only be used on the JavaFX Application
+ * Thread.</p>
+ *
+ * @see PriorityEngine#scoreAll(List, long)
+ *
+ * @author 12236202
+ */
+public final class UiTicker {
+
+    private static final Duration TICK = Duration.minutes(1);
+
+    private static UiTicker instance;
+
+    private final List<WeakReference<TableView<Disaster>>> tables = new ArrayList<>();
+    private final Timeline timeline;
+
+    private UiTicker() {
+        timeline = new Timeline(new KeyFrame(TICK, event -> tick()));
+        timeline.setCycleCount(Animation.INDEFINITE);
+    }
+
+    /**
+     * Gets the singleton instance of {@code UiTicker}.
+     *
+     * @return The singleton instance of {@code UiTicker}.
+     */
+    public static synchronized UiTicker getInstance() {
+        if (instance == null) {
+            instance = new UiTicker();
+        }
+        return instance;
+    }
+
+    /**
+     * Keeps a table's derived columns current until the table is no longer
+     * used.
+     *
+     * @param table The disaster table to keep current.
+     */
+    public void register(TableView<Disaster> table) {
+        tables.add(new WeakReference<>(table));
+        if (timeline.getStatus() != Animation.Status.RUNNING) {
+            timeline.play();
+        }
+    }
+
+    /**
+     * Moves the rows of every registered table to the current time and
+     * redraws the tables.
+     */
+    private void tick() {
+        long asOfMillis = PriorityEngine.toEpochMillis(LocalDateTime.now());
+        PriorityEngine engine = PriorityEngine.getInstance();
+
+        Iterator<WeakReference<TableView<Disaster>>> iterator = tables.iterator();
+        while (iterator.hasNext()) {
+            TableView<Disaster> table = iterator.next().get();
+            if (table == null) {
+                iterator.remove();
+                continue;
+            }
+            if (table.getScene() == null) {
+                // Not on screen; its rows are moved on the next tick after it is shown
+                continue;
+            }
+            engine.scoreAll(table.getItems(), asOfMillis);
+            table.refresh();
+        }
+
+        if (tables.isEmpty()) {
+            timeline.stop();
+        }
+    }
+}
@@ -5,7 +5,6 @@ import javafx.scene.control.Button;
 import javafx.scene.control.TableView;
 import disasterresponse.models.User;
 import disasterresponse.services.UserService;
-import java.util.List;
 import java.util.Optional;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -132,9 +131,10 @@ public class UsersController {
         loadUsers();
 
         // Populate user roles in the combo box
-        List<String> roles = userService.getUserRoles();
-        ObservableList<String> roleOptions = FXCollections.observableArrayList(roles);
-        userRoleComboBox.setItems(roleOptions);
+        FxAsync.onFx(userService.getUserRolesAsync(), roles -> {
+            ObservableList<String> roleOptions = FXCollections.observableArrayList(roles);
+            userRoleComboBox.setItems(roleOptions);
+        });
 
         // Add listener to userRoleComboBox for role-dependent behavior
         userRoleComboBox.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> {
@@ -241,16 +241,19 @@ public class UsersController {
      * Loads all users and populates the table with user data.
      */
     private void loadUsers() {
-        ObservableList<User> users = FXCollections.observableArrayList(userService.getAllUsersWithRolesAndDepartments());
-        usersTable.setItems(users);
+        FxAsync.loadInto(usersTable, userService.getAllUsersWithRolesAndDepartmentsAsync(), allUsers -> {
+            ObservableList<User> users = FXCollections.observableArrayList(allUsers);
+            usersTable.setItems(users);
+        });
     }
 
     /**
      * Populates the department combo box with available departments.
      */
     private void populateDepartments() {
-        List<String> departments = userService.getDepartments();
-        ObservableList<String> departmentOptions = FXCollections.observableArrayList(departments);
-        departmentComboBox.setItems(departmentOptions);
+        FxAsync.onFx(userService.getDepartmentsAsync(), departments -> {
+            ObservableList<String> departmentOptions = FXCollections.observableArrayList(departments);
+            departmentComboBox.setItems(departmentOptions);
+        });
     }
 }
@@ -1,18 +1,17 @@
 package disasterresponse.controllers;
 
 import disasterresponse.models.Disaster;
+import disasterresponse.models.DisasterCursor;
 import disasterresponse.models.DisasterMessage;
 import disasterresponse.models.User;
 import disasterresponse.services.DisasterService;
 import disasterresponse.services.SessionDetails;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import java.util.Comparator;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 
-import java.util.List;
 import javafx.scene.control.TableRow;
 
 /**
@@ -77,8 +76,14 @@ public class ViewAllDisastersController {
     @FXML
     private TableColumn<DisasterMessage, String> messageColumn;
 
+    private static final int PAGE_SIZE = 50;
+
     private final DisasterService disasterService;
 
+    private PagedTableLoader<Disaster> disasterPager;
+    private DisasterListStore disasterStore;
+    private TimelineTableLoader updateLoader;
+
     /**
      * Constructor for {@code ViewAllDisastersController}. Initializes the
      * {@code DisasterService} instance for interacting with disaster data.
@@ -111,9 +116,22 @@ public class ViewAllDisastersController {
         nameColumn.setCellValueFactory(new PropertyValueFactory<>("messagedByFullName"));
         messageColumn.setCellValueFactory(new PropertyValueFactory<>("message"));
 
-        // Load in-progress disasters
+        // Show updates newest first; older updates load as the table is scrolled
+        updateLoader = new TimelineTableLoader(updateTable, disasterService, PAGE_SIZE);
+
+        // Load disasters a page at a time, newest first, as the table is scrolled
+        disasterPager = new PagedTableLoader<>(disasterTable, PAGE_SIZE,
+                (lastRow, pageSize) -> disasterService.getDisastersPageAsync("ALL", DisasterCursor.after(lastRow), pageSize));
+
+        // Keep the loaded disasters up to date by merging in only what changed
+        disasterStore = new DisasterListStore(disasterTable.getItems(), disaster -> true,
+                Comparator.comparingLong(Disaster::getReportedAtMillis).thenComparingInt(Disaster::getId).reversed());
+        disasterPager.setOnPageLoaded(disasterStore::track);
         loadInProgressDisasters();
 
+        // Keep the time since reporting and priority current between refreshes
+        UiTicker.getInstance().register(disasterTable);
+
         // Set row factory for disaster table to handle row clicks
         disasterTable.setRowFactory(tv -> {
             TableRow<Disaster> row = new TableRow<>();
@@ -128,34 +146,40 @@ public class ViewAllDisastersController {
     }
 
     /**
-     * Loads all in-progress disasters and populates the disaster table.
+     * Loads the first page of disasters into the disaster table. Older
+     * disasters are loaded as the table is scrolled.
      */
     private void loadInProgressDisasters() {
         
-        updateTable.getItems().clear();
-        List<Disaster> inProgressDisasters = disasterService.getDisastersByStatus("ALL");
-        ObservableList<Disaster> disasterData = FXCollections.observableArrayList(inProgressDisasters);
-        disasterTable.setItems(disasterData);
+        updateLoader.clear();
+        disasterStore.reset();
+        disasterPager.reload();
     }
 
     /**
-     * Loads the updates for a specific disaster and populates the update table.
+     * Loads the latest updates for a specific disaster and populates the update
+     * table, newest first. Selecting the same disaster again fetches only the
+     * updates posted since.
      *
      * @param disasterId The ID of the disaster for which updates are to be
      * loaded.
      */
     private void loadDisasterUpdates(int disasterId) {
-        
-        List<DisasterMessage> disasterMessages = disasterService.getDisasterMessages(disasterId);
-        ObservableList<DisasterMessage> updateData = FXCollections.observableArrayList(disasterMessages);
-        updateTable.setItems(updateData);
+        updateLoader.show(disasterId);
     }
 
     /**
-     * Refreshes the disaster table by reloading all in-progress disasters.
+     * Refreshes the disaster table by merging in the disasters that changed
+     * since they were loaded. The table is reloaded in full only if nothing
+     * has been loaded yet.
      */
     @FXML
     private void handleRefresh() {
-        loadInProgressDisasters();
+        if (!disasterStore.canRefresh()) {
+            loadInProgressDisasters();
+            return;
+        }
+        FxAsync.onFx(disasterService.getDisastersChangedSinceAsync(disasterStore.getRefreshFrom()),
+                changes -> disasterStore.merge(changes, disasterPager.isExhausted()));
     }
 }
@@ -6,6 +6,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The {@code DepartmentDAO} class provides data access methods for the
@@ -18,9 +20,12 @@ import java.sql.SQLException;
  *
  * <p>
  * The class relies on {@code DatabaseUtil} for obtaining database connections
- * and handles SQL exceptions that may occur during database operations.</p>
+ * and handles SQL exceptions that may occur during database operations.
+ * Lookups by ID are answered from the {@code ReferenceDataCache}, which uses
+ * {@link #loadDepartments()} to read the whole table.</p>
  *
  * @see DatabaseUtil
+ * @see ReferenceDataCache
  *
  * @author 12236202
  */
@@ -28,7 +33,7 @@ public class DepartmentDAO {
 
     /**
      * Retrieves the department name for a given department ID from the
-     * database.
+     * reference data cache.
      *
      * @param departmentId The ID of the department whose name is to be
      * retrieved.
@@ -36,22 +41,32 @@ public class DepartmentDAO {
      * the given ID exists.
      */
     public String getDepartmentById(int departmentId) {
-        String sql = "SELECT department_name FROM departments WHERE department_id = ?";
-        String departmentName = null;
+        return ReferenceDataCache.getInstance().getDepartments().getName(departmentId);
+    }
 
-        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
+    /**
+     * Reads all departments from the database.
+     *
+     * @return An {@code IdNameMap} of department IDs and names, or
+     * {@code null} if the table could not be read.
+     */
+    public IdNameMap loadDepartments() {
+        String sql = "SELECT department_id, department_name FROM departments";
+        List<Integer> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
 
-            stmt.setInt(1, departmentId);
-            ResultSet rs = stmt.executeQuery();
+        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
 
-            if (rs.next()) {
-                departmentName = rs.getString("department_name");
+            while (rs.next()) {
+                ids.add(rs.getInt("department_id"));
+                names.add(rs.getString("department_name"));
             }
 
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
 
-        return departmentName;
+        return new IdNameMap(ids.stream().mapToInt(Integer::intValue).toArray(), names.toArray(String[]::new));
     }
 }
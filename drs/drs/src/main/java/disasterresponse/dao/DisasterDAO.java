@@ -1,16 +1,20 @@
 package disasterresponse.dao;
 
 import disasterresponse.models.Disaster;
+import disasterresponse.models.DisasterCursor;
+import disasterresponse.models.PriorityCursor;
 import disasterresponse.services.DatabaseUtil;
+import disasterresponse.priority.PriorityEngine;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.Duration;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.TimeZone;
 
 /**
  * The {@code DisasterDAO} class provides data access methods for the
@@ -20,7 +24,12 @@ import java.util.List;
  * <p>
  * This class interacts with the database to manage disaster records, including
  * inserting new disasters, fetching all or filtered disaster records, and
- * updating the status of disasters.</p>
+ * updating the status of disasters. Long listings can be read a page at a time
+ * with {@link #getDisastersPage(String, DisasterCursor, int)}, or in priority
+ * order with {@link #getDisastersByPriority(String, PriorityCursor, int)}.
+ * {@link #getDisastersChangedSince(LocalDateTime)} returns only the rows
+ * changed since a previous read, so a listing can be refreshed
+ * incrementally.</p>
  *
  * @see DatabaseUtil
  * @see Disaster
@@ -29,6 +38,22 @@ import java.util.List;
  */
 public class DisasterDAO {
 
+    /**
+     * Orders statuses as Open, In Progress, Closed. Matches
+     * {@link PriorityCursor#statusRank(String)}.
+     */
+    private static final String STATUS_RANK_SQL
+            = "CASE status WHEN 'Open' THEN 0 WHEN 'In Progress' THEN 1 ELSE 2 END";
+
+    /**
+     * The priority of a disaster, measured up to the ranking time parameter,
+     * as scored by the {@link PriorityEngine}. Also used by
+     * {@link DisasterMessageDAO} to rank requests by their disaster.
+     */
+    static final String PRIORITY_SQL = PriorityEngine.getInstance().toSql();
+
+    private final PriorityEngine priorityEngine = PriorityEngine.getInstance();
+
     /**
      * Inserts a new disaster record into the database.
      *
@@ -66,23 +91,128 @@ public class DisasterDAO {
 
         try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
 
+            TimeZone zone = TimeZone.getDefault();
+            while (rs.next()) {
+                disasters.add(mapDisaster(rs, zone));
+            }
+            // One clock reading for the whole listing, scored in one batch
+            priorityEngine.scoreAll(disasters, PriorityEngine.toEpochMillis(LocalDateTime.now()));
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return disasters;
+    }
+
+    /**
+     * Retrieves one page of disaster records, newest first. Pages are keyed on
+     * the report time and ID of the last disaster of the previous page, so
+     * each page is an index range scan rather than an offset scan.
+     *
+     * @param status The status of the disasters to retrieve. Use "ALL" to
+     * retrieve disasters of every status.
+     * @param after The position after which the page starts, or {@code null}
+     * for the first page.
+     * @param pageSize The maximum number of disasters to return.
+     * @return A {@code List} of at most {@code pageSize} {@code Disaster}
+     * objects.
+     */
+    public List<Disaster> getDisastersPage(String status, DisasterCursor after, int pageSize) {
+        List<Disaster> disasters = new ArrayList<>();
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM disasters WHERE 1 = 1");
+        if (!"ALL".equals(status)) {
+            sql.append(" AND status = ?");
+        }
+        if (after != null) {
+            // Written out, as MySQL does not range-optimize the row-constructor form
+            sql.append(" AND (reported_at < ? OR (reported_at = ? AND id < ?))");
+        }
+        sql.append(" ORDER BY reported_at DESC, id DESC LIMIT ?");
+
+        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            if (!"ALL".equals(status)) {
+                stmt.setString(index++, status);
+            }
+            if (after != null) {
+                Timestamp reportedAt = Timestamp.valueOf(after.getReportedAt());
+                stmt.setTimestamp(index++, reportedAt);
+                stmt.setTimestamp(index++, reportedAt);
+                stmt.setInt(index++, after.getId());
+            }
+            stmt.setInt(index, pageSize);
+            ResultSet rs = stmt.executeQuery();
+
+            TimeZone zone = TimeZone.getDefault();
             while (rs.next()) {
-                Disaster disaster = new Disaster();
-                disaster.setId(rs.getInt("id"));
-                disaster.setType(rs.getString("type"));
-                disaster.setLocation(rs.getString("location"));
-                disaster.setSeverity(rs.getInt("severity"));
-                disaster.setDescription(rs.getString("description"));
-                disaster.setStatus(rs.getString("status"));
-                disaster.setReportedBy(rs.getInt("reported_by"));
-                disaster.setReportedAt(rs.getTimestamp("reported_at").toLocalDateTime());
-
-                // Calculate time since reporting
-                disaster.setTimeSinceReporting(calculateTimeSince(rs.getTimestamp("reported_at").toLocalDateTime()));
-
-                // Priority calculation based on type, severity, and time since reporting
-                disaster.setPriority(calculatePriority(disaster));
+                disasters.add(mapDisaster(rs, zone));
+            }
+            // One clock reading for the whole listing, scored in one batch
+            priorityEngine.scoreAll(disasters, PriorityEngine.toEpochMillis(LocalDateTime.now()));
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
 
+        return disasters;
+    }
+
+    /**
+     * Retrieves one page of disaster records ordered by status (Open, In
+     * Progress, Closed), then by priority, highest first. The ranking and the
+     * limit are applied by the database, so only the requested rows are read
+     * back; the first page is the top-N list.
+     *
+     * @param status The status of the disasters to retrieve. Use "ALL" to
+     * retrieve disasters of every status.
+     * @param after The position after which the page starts, including the
+     * moment the listing is ranked at.
+     * @param pageSize The maximum number of disasters to return.
+     * @return A {@code List} of at most {@code pageSize} {@code Disaster}
+     * objects.
+     */
+    public List<Disaster> getDisastersByPriority(String status, PriorityCursor after, int pageSize) {
+        List<Disaster> disasters = new ArrayList<>();
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM (SELECT d.*, ")
+                .append(STATUS_RANK_SQL).append(" AS status_rank, ")
+                .append(PRIORITY_SQL).append(" AS priority FROM disasters d");
+        if (!"ALL".equals(status)) {
+            sql.append(" WHERE status = ?");
+        }
+        sql.append(") ranked");
+        if (!after.isFirst()) {
+            sql.append(" WHERE status_rank > ? OR (status_rank = ? AND (priority < ? OR (priority = ? AND id < ?)))");
+        }
+        sql.append(" ORDER BY status_rank, priority DESC, id DESC LIMIT ?");
+
+        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            stmt.setTimestamp(index++, Timestamp.valueOf(after.getAsOf()));
+            if (!"ALL".equals(status)) {
+                stmt.setString(index++, status);
+            }
+            if (!after.isFirst()) {
+                stmt.setInt(index++, after.getStatusRank());
+                stmt.setInt(index++, after.getStatusRank());
+                stmt.setInt(index++, after.getPriority());
+                stmt.setInt(index++, after.getPriority());
+                stmt.setInt(index++, after.getId());
+            }
+            stmt.setInt(index, pageSize);
+            ResultSet rs = stmt.executeQuery();
+
+            TimeZone zone = TimeZone.getDefault();
+            long asOfMillis = PriorityEngine.toEpochMillis(after.getAsOf());
+            while (rs.next()) {
+                Disaster disaster = mapDisaster(rs, zone);
+                // Keep the priority the rows were ranked by, and age them from the same moment
+                disaster.setPriority(rs.getInt("priority"));
+                disaster.setAsOfMillis(asOfMillis);
                 disasters.add(disaster);
             }
 
@@ -93,6 +223,39 @@ public class DisasterDAO {
         return disasters;
     }
 
+    /**
+     * Retrieves the disaster records changed at or after the given time, of
+     * any status. The {@code updated_at} column is maintained by the database
+     * on every insert and update, and is indexed, so the cost of this query
+     * grows with the number of changes rather than the size of the table.
+     *
+     * @param since The earliest change time to include.
+     * @return A {@code List} of the changed {@code Disaster} objects, oldest
+     * change first.
+     */
+    public List<Disaster> getDisastersChangedSince(LocalDateTime since) {
+        List<Disaster> disasters = new ArrayList<>();
+        String sql = "SELECT * FROM disasters WHERE updated_at >= ? ORDER BY updated_at, id";
+
+        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(since));
+            ResultSet rs = stmt.executeQuery();
+
+            TimeZone zone = TimeZone.getDefault();
+            while (rs.next()) {
+                disasters.add(mapDisaster(rs, zone));
+            }
+            // One clock reading for the whole listing, scored in one batch
+            priorityEngine.scoreAll(disasters, PriorityEngine.toEpochMillis(LocalDateTime.now()));
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return disasters;
+    }
+
     /**
      * Updates the status of a disaster record in the database.
      *
@@ -100,18 +263,93 @@ public class DisasterDAO {
      * @param status The new status of the disaster.
      */
     public void updateDisasterStatus(int id, String status) {
+        try (Connection connection = DatabaseUtil.getConnection()) {
+            updateDisasterStatus(connection, id, status);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Updates the status of a disaster record on the given connection, as part
+     * of a larger transaction.
+     *
+     * @param connection The connection of the transaction.
+     * @param id The ID of the disaster whose status is to be updated.
+     * @param status The new status of the disaster.
+     * @throws SQLException If the update fails.
+     */
+    public void updateDisasterStatus(Connection connection, int id, String status) throws SQLException {
         String sql = "UPDATE disasters SET status = ? WHERE id = ?";
 
-        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
 
             stmt.setString(1, status);
             stmt.setInt(2, id);
 
             stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Gets the highest disaster ID in use.
+     *
+     * @return The highest disaster ID, or 0 if there are no disasters.
+     */
+    public int getMaxDisasterId() {
+        String sql = "SELECT COALESCE(MAX(id), 0) FROM disasters";
+
+        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
 
         } catch (SQLException e) {
             e.printStackTrace();
         }
+
+        return 0;
+    }
+
+    /**
+     * Recomputes the activity counters of a range of disasters from their
+     * messages and corrects any that have drifted.
+     *
+     * @param fromId The ID the range starts after.
+     * @param toId The last ID of the range.
+     * @return The number of disasters whose counters were corrected.
+     */
+    public int repairActivityCounters(int fromId, int toId) {
+        String sql = "UPDATE disasters d "
+                + "LEFT JOIN (SELECT disasterId, COUNT(*) AS message_count, "
+                + "SUM(message_type = 'REQUEST' AND approval_status IS NULL) AS pending_request_count, "
+                + "MAX(messageTime) AS last_activity_at "
+                + "FROM disaster_messages WHERE disasterId > ? AND disasterId <= ? GROUP BY disasterId) a "
+                + "ON a.disasterId = d.id "
+                + "SET d.message_count = COALESCE(a.message_count, 0), "
+                + "d.pending_request_count = COALESCE(a.pending_request_count, 0), "
+                + "d.last_activity_at = a.last_activity_at "
+                + "WHERE d.id > ? AND d.id <= ? "
+                + "AND (d.message_count <> COALESCE(a.message_count, 0) "
+                + "OR d.pending_request_count <> COALESCE(a.pending_request_count, 0) "
+                + "OR NOT (d.last_activity_at <=> a.last_activity_at))";
+
+        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+            stmt.setInt(1, fromId);
+            stmt.setInt(2, toId);
+            stmt.setInt(3, fromId);
+            stmt.setInt(4, toId);
+
+            return stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return 0;
     }
 
     /**
@@ -136,24 +374,12 @@ public class DisasterDAO {
             }
             ResultSet rs = stmt.executeQuery();
 
+            TimeZone zone = TimeZone.getDefault();
             while (rs.next()) {
-                Disaster disaster = new Disaster();
-                disaster.setId(rs.getInt("id"));
-                disaster.setType(rs.getString("type"));
-                disaster.setLocation(rs.getString("location"));
-                disaster.setSeverity(rs.getInt("severity"));
-                disaster.setStatus(rs.getString("status"));
-                disaster.setReportedBy(rs.getInt("reported_by"));
-                disaster.setReportedAt(rs.getTimestamp("reported_at").toLocalDateTime());
-
-                // Calculate time since reporting
-                disaster.setTimeSinceReporting(calculateTimeSince(rs.getTimestamp("reported_at").toLocalDateTime()));
-
-                // Calculate priority (this logic can be refined based on your needs)
-                disaster.setPriority(calculatePriority(disaster));
-
-                disasters.add(disaster);
+                disasters.add(mapDisaster(rs, zone));
             }
+            // One clock reading for the whole listing, scored in one batch
+            priorityEngine.scoreAll(disasters, PriorityEngine.toEpochMillis(LocalDateTime.now()));
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -163,31 +389,50 @@ public class DisasterDAO {
     }
 
     /**
-     * Calculates the time since the disaster was reported.
+     * Maps the current row of a {@code disasters} result set to a
+     * {@code Disaster} object. The time since reporting and the priority are
+     * derived later, from one clock reading for the whole result set.
      *
-     * @param reportedAt The {@code LocalDateTime} when the disaster was
-     * reported.
-     * @return A {@code String} representing the time since reporting in hours.
+     * @param rs The result set positioned on the row to map.
+     * @param zone The time zone the driver reads timestamps in, looked up
+     * once per result set.
+     * @return The mapped {@code Disaster} object.
+     * @throws SQLException If a column cannot be read.
      */
-    private String calculateTimeSince(LocalDateTime reportedAt) {
-        LocalDateTime now = LocalDateTime.now();
-        Duration duration = Duration.between(reportedAt, now);
-        long hours = duration.toHours();
-        return hours + " hours ago";
+    private Disaster mapDisaster(ResultSet rs, TimeZone zone) throws SQLException {
+        Disaster disaster = new Disaster();
+        disaster.setId(rs.getInt("id"));
+        disaster.setType(rs.getString("type"));
+        disaster.setLocation(rs.getString("location"));
+        disaster.setSeverity(rs.getInt("severity"));
+        disaster.setDescription(rs.getString("description"));
+        disaster.setStatus(rs.getString("status"));
+        disaster.setReportedBy(rs.getInt("reported_by"));
+        disaster.setReportedAtMillis(toLocalMillis(rs.getTimestamp("reported_at"), zone));
+
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        disaster.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : disaster.getReportedAt());
+
+        // Activity counters, kept up to date by DisasterMessageDAO
+        disaster.setMessageCount(rs.getInt("message_count"));
+        disaster.setPendingRequestCount(rs.getInt("pending_request_count"));
+        Timestamp lastActivityAt = rs.getTimestamp("last_activity_at");
+        disaster.setLastActivityAt(lastActivityAt != null ? lastActivityAt.toLocalDateTime() : null);
+
+        return disaster;
     }
 
     /**
-     * Calculates the priority of the disaster based on its severity and time
-     * since reporting.
+     * Converts a timestamp to the local date and time it shows, as epoch
+     * milliseconds read as UTC, without building a {@code LocalDateTime}.
      *
-     * @param disaster The {@code Disaster} object for which the priority is
-     * calculated.
-     * @return An {@code int} representing the calculated priority of the
-     * disaster.
+     * @param timestamp The timestamp to convert.
+     * @param zone The time zone the timestamp was read in.
+     * @return The local date and time in milliseconds, as
+     * {@link PriorityEngine#toEpochMillis(LocalDateTime)} gives it.
      */
-    private int calculatePriority(Disaster disaster) {
-        int severityWeight = disaster.getSeverity();
-        long timeSinceHours = Duration.between(disaster.getReportedAt(), LocalDateTime.now()).toHours();
-        return severityWeight * 100 - (int) timeSinceHours;
+    private static long toLocalMillis(Timestamp timestamp, TimeZone zone) {
+        long millis = timestamp.getTime();
+        return millis + zone.getOffset(millis);
     }
 }
@@ -1,14 +1,26 @@
 package disasterresponse.dao;
 
 import disasterresponse.models.DisasterMessage;
+import disasterresponse.models.MessageCursor;
+import disasterresponse.models.MessageType;
+import disasterresponse.models.PendingRequest;
 import disasterresponse.services.DatabaseUtil;
+import disasterresponse.services.UnitOfWork;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * The {@code DisasterMessageDAO} class provides data access methods for the
@@ -18,7 +30,21 @@ import java.util.List;
  * <p>
  * This class interacts with the database to manage disaster messages, including
  * inserting new messages, fetching messages related to specific disasters, and
- * updating the approval status of messages.</p>
+ * updating the approval status of messages. Many messages can be inserted at
+ * once with {@link #insertDisasterMessages(List)}.</p>
+ *
+ * <p>
+ * Each message is stored with its {@link MessageType}. Requests and decisions
+ * are looked up by type through the
+ * {@code (disasterId, message_type, approval_status)} index rather than by
+ * matching the message text.</p>
+ *
+ * <p>
+ * Inserts and approval decisions also keep the activity counters of the
+ * {@code disasters} table, {@code message_count},
+ * {@code pending_request_count} and {@code last_activity_at}, up to date in
+ * the same transaction, so nothing has to aggregate the messages to read
+ * them.</p>
  *
  * @see DatabaseUtil
  * @see DisasterMessage
@@ -27,6 +53,18 @@ import java.util.List;
  */
 public class DisasterMessageDAO {
 
+    /**
+     * The columns of a message timeline row, with the names of its department,
+     * its sender's role and its sender joined in.
+     */
+    private static final String TIMELINE_SELECT
+            = "SELECT dm.id, dm.disasterId, dm.messageTime, d.department_name, ur.role_name, u.first_name, u.last_name, dm.message, "
+            + "dm.approval_status, dm.message_type "
+            + "FROM disaster_messages dm "
+            + "JOIN departments d ON dm.departmentId = d.department_id "
+            + "JOIN users u ON dm.messagedBy = u.user_id "
+            + "JOIN user_roles ur ON u.user_role = ur.role_id ";
+
     /**
      * Inserts a new disaster message record into the database.
      *
@@ -34,23 +72,225 @@ public class DisasterMessageDAO {
      * details of the message to be inserted.
      */
     public void insertDisasterMessage(DisasterMessage disasterMessage) {
-        String sql = "INSERT INTO disaster_messages (disasterId, departmentId, message, messageTime, messagedBy) "
-                + "VALUES (?, ?, ?, CURRENT_TIMESTAMP, ?)";
+        try {
+            UnitOfWork.run(connection -> insertDisasterMessage(connection, disasterMessage));
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
 
-        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
+    /**
+     * Inserts a new disaster message record on the given connection, as part
+     * of a larger transaction. The message is stamped with the current time,
+     * which is set on it.
+     *
+     * @param connection The connection of the transaction.
+     * @param disasterMessage The {@code DisasterMessage} object containing the
+     * details of the message to be inserted.
+     * @throws SQLException If the insert fails.
+     */
+    public void insertDisasterMessage(Connection connection, DisasterMessage disasterMessage) throws SQLException {
+        String sql = "INSERT INTO disaster_messages (disasterId, departmentId, message, messageTime, messagedBy, message_type) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+
+        stampMessageTimes(connection, List.of(disasterMessage));
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
 
             stmt.setInt(1, disasterMessage.getDisasterId());
             stmt.setInt(2, disasterMessage.getDepartmentId());
             stmt.setString(3, disasterMessage.getMessage());
-            stmt.setInt(4, disasterMessage.getMessagedBy());
+            stmt.setTimestamp(4, Timestamp.valueOf(disasterMessage.getMessageTime()));
+            stmt.setInt(5, disasterMessage.getMessagedBy());
+            stmt.setString(6, disasterMessage.getMessageType().name());
 
             stmt.executeUpdate();
+        }
+        recordActivity(connection, List.of(disasterMessage));
+    }
 
+    /**
+     * Inserts several disaster messages as one JDBC batch. The driver rewrites
+     * the batch into multi-row {@code INSERT} statements, so the rows reach
+     * the database in a few round trips rather than one per message. The
+     * generated ID of each row is set on its {@code DisasterMessage}.
+     *
+     * <p>
+     * Every message is stamped with the database's current time, in whole
+     * seconds, and the stored time is set on the message. A time already set
+     * on the message, such as when an update was queued while offline, is
+     * replaced, so that a sync of a cached timeline, which only reads back a
+     * short way before the latest time it holds, cannot miss the message.</p>
+     *
+     * @param disasterMessages The messages to be inserted.
+     */
+    public void insertDisasterMessages(List<DisasterMessage> disasterMessages) {
+        try {
+            UnitOfWork.run(connection -> insertDisasterMessages(connection, disasterMessages));
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Inserts several disaster messages as one JDBC batch on the given
+     * connection, as part of a larger transaction. The generated ID of each row
+     * is set on its {@code DisasterMessage}.
+     *
+     * @param connection The connection of the transaction.
+     * @param disasterMessages The messages to be inserted.
+     * @throws SQLException If the insert fails.
+     */
+    public void insertDisasterMessages(Connection connection, List<DisasterMessage> disasterMessages) throws SQLException {
+        if (disasterMessages.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO disaster_messages (disasterId, departmentId, message, messageTime, messagedBy, message_type) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+
+        stampMessageTimes(connection, disasterMessages);
+        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            for (DisasterMessage disasterMessage : disasterMessages) {
+                stmt.setInt(1, disasterMessage.getDisasterId());
+                stmt.setInt(2, disasterMessage.getDepartmentId());
+                stmt.setString(3, disasterMessage.getMessage());
+                stmt.setTimestamp(4, Timestamp.valueOf(disasterMessage.getMessageTime()));
+                stmt.setInt(5, disasterMessage.getMessagedBy());
+                stmt.setString(6, disasterMessage.getMessageType().name());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            // Keys come back in the order the rows were added to the batch
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (int i = 0; i < disasterMessages.size() && keys.next(); i++) {
+                    disasterMessages.get(i).setId(keys.getInt(1));
+                }
+            }
+        }
+        recordActivity(connection, disasterMessages);
+    }
+
+    /**
+     * Gives every message the time it is stored with: the database's current
+     * time, in whole seconds as the {@code messageTime} column keeps it. The activity counters are then recorded with exactly the
+     * stored times, so {@code last_activity_at} matches the latest
+     * {@code messageTime}. Taking the time from the database rather than the
+     * client keeps message times comparable across clients, which
+     * {@link disasterresponse.services.MessageTimeline} syncs rely on.
+     *
+     * @param connection The connection of the transaction that inserts the
+     * messages.
+     * @param disasterMessages The messages about to be inserted.
+     * @throws SQLException If the current time cannot be read.
+     */
+    private static void stampMessageTimes(Connection connection, List<DisasterMessage> disasterMessages) throws SQLException {
+        LocalDateTime now = currentDatabaseTime(connection).truncatedTo(ChronoUnit.SECONDS);
+        for (DisasterMessage disasterMessage : disasterMessages) {
+            disasterMessage.setMessageTime(now);
+        }
+    }
+
+    /**
+     * Reads the database's current time, in whole seconds.
+     *
+     * @param connection The connection to read it on.
+     * @return The current time.
+     * @throws SQLException If the query fails.
+     */
+    private static LocalDateTime currentDatabaseTime(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT CURRENT_TIMESTAMP"); ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getTimestamp(1).toLocalDateTime();
+        }
+    }
+
+    /**
+     * Adds newly inserted messages to the activity counters of their
+     * disasters, with one counter update per disaster. Disasters are updated
+     * in ascending ID order, as in
+     * {@link #releasePendingRequests(Connection, List)}, so transactions that
+     * touch the same disasters always lock them in the same order and cannot
+     * deadlock each other.
+     *
+     * @param connection The connection of the transaction that inserted the
+     * messages.
+     * @param inserted The inserted messages.
+     * @throws SQLException If the update fails.
+     */
+    private void recordActivity(Connection connection, List<DisasterMessage> inserted) throws SQLException {
+        Map<Integer, ActivityDelta> deltas = new TreeMap<>();
+        for (DisasterMessage disasterMessage : inserted) {
+            deltas.computeIfAbsent(disasterMessage.getDisasterId(), id -> new ActivityDelta()).add(disasterMessage);
+        }
+
+        String sql = "UPDATE disasters SET last_activity_at = COALESCE(GREATEST(last_activity_at, ?), ?), "
+                + "message_count = message_count + ?, pending_request_count = pending_request_count + ? "
+                + "WHERE id = ?";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+            for (Map.Entry<Integer, ActivityDelta> entry : deltas.entrySet()) {
+                ActivityDelta delta = entry.getValue();
+                Timestamp latestTime = Timestamp.valueOf(delta.latest);
+                stmt.setTimestamp(1, latestTime);
+                stmt.setTimestamp(2, latestTime);
+                stmt.setInt(3, delta.messages);
+                stmt.setInt(4, delta.requests);
+                stmt.setInt(5, entry.getKey());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Takes decided requests off the pending request counters of their
+     * disasters. The decided requests are counted per disaster first, and the
+     * disasters are then updated in ascending ID order, as in
+     * {@link #recordActivity(Connection, List)}.
+     *
+     * @param connection The connection of the transaction that decided the
+     * requests.
+     * @param decidedIds The IDs of the messages that were decided.
+     * @throws SQLException If the update fails.
+     */
+    private void releasePendingRequests(Connection connection, List<Integer> decidedIds) throws SQLException {
+        if (decidedIds.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(decidedIds.size(), "?"));
+        String countSql = "SELECT disasterId, COUNT(*) AS decided FROM disaster_messages "
+                + "WHERE message_type = 'REQUEST' AND id IN (" + placeholders + ") GROUP BY disasterId";
+        String sql = "UPDATE disasters SET pending_request_count = GREATEST(pending_request_count - ?, 0) WHERE id = ?";
+
+        Map<Integer, Integer> decidedByDisaster = new TreeMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(countSql)) {
+
+            for (int i = 0; i < decidedIds.size(); i++) {
+                stmt.setInt(i + 1, decidedIds.get(i));
+            }
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                decidedByDisaster.put(rs.getInt("disasterId"), rs.getInt("decided"));
+            }
+        }
+        if (decidedByDisaster.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+            for (Map.Entry<Integer, Integer> entry : decidedByDisaster.entrySet()) {
+                stmt.setInt(1, entry.getValue());
+                stmt.setInt(2, entry.getKey());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
     /**
      * Retrieves all disaster messages for a given disaster from the database.
      *
@@ -60,28 +300,177 @@ public class DisasterMessageDAO {
      * the specified disaster.
      */
     public List<DisasterMessage> getDisasterMessages(int disasterId) {
+        return getDisasterMessagesSince(disasterId, 0);
+    }
+
+    /**
+     * Retrieves the disaster messages for a given disaster whose ID is greater
+     * than the given ID, in ID order. IDs do not follow commit order, so a
+     * cached timeline is synced with
+     * {@link #getDisasterMessagesFrom(int, LocalDateTime)} instead.
+     *
+     * @param disasterId The ID of the disaster whose messages are to be
+     * retrieved.
+     * @param lastMessageId The highest message ID already held, or 0 for all
+     * messages.
+     * @return A {@code List} of the newer {@code DisasterMessage} objects,
+     * oldest first.
+     */
+    public List<DisasterMessage> getDisasterMessagesSince(int disasterId, int lastMessageId) {
         List<DisasterMessage> messages = new ArrayList<>();
-        String sql = "SELECT dm.messageTime, d.department_name, ur.role_name, u.first_name, u.last_name, dm.message "
-                + "FROM disaster_messages dm "
-                + "JOIN departments d ON dm.departmentId = d.department_id "
-                + "JOIN users u ON dm.messagedBy = u.user_id "
-                + "JOIN user_roles ur ON u.user_role = ur.role_id "
-                + "WHERE dm.disasterId = ?";
+        String sql = TIMELINE_SELECT
+                + "WHERE dm.disasterId = ? AND dm.id > ? "
+                + "ORDER BY dm.id";
 
         try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
 
             stmt.setInt(1, disasterId);
+            stmt.setInt(2, lastMessageId);
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                DisasterMessage message = new DisasterMessage();
-                message.setMessageTime(rs.getTimestamp("messageTime").toLocalDateTime());
-                message.setDepartmentName(rs.getString("department_name"));
-                message.setRoleName(rs.getString("role_name"));
-                message.setMessagedByFullName(rs.getString("first_name") + " " + rs.getString("last_name"));
-                message.setMessage(rs.getString("message"));
+                messages.add(mapTimelineMessage(rs));
+            }
 
-                messages.add(message);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return messages;
+    }
+
+    /**
+     * Retrieves the disaster messages for a given disaster stamped at or after
+     * the given time, oldest first. The rows are a range of the
+     * {@code (disasterId, messageTime, id)} index. Unlike message IDs,
+     * message times follow commit order up to a lock wait, so a caller that
+     * re-reads a short overlap picks up messages that committed late.
+     *
+     * @param disasterId The ID of the disaster whose messages are to be
+     * retrieved.
+     * @param since The earliest message time to include, or {@code null} for
+     * all messages.
+     * @return A {@code List} of the matching {@code DisasterMessage} objects,
+     * oldest first.
+     */
+    public List<DisasterMessage> getDisasterMessagesFrom(int disasterId, LocalDateTime since) {
+        List<DisasterMessage> messages = new ArrayList<>();
+        String sql = TIMELINE_SELECT
+                + "WHERE dm.disasterId = ?" + (since != null ? " AND dm.messageTime >= ?" : "")
+                + " ORDER BY dm.messageTime, dm.id";
+
+        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+            stmt.setInt(1, disasterId);
+            if (since != null) {
+                stmt.setTimestamp(2, Timestamp.valueOf(since));
+            }
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                messages.add(mapTimelineMessage(rs));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return messages;
+    }
+
+    /**
+     * Retrieves one page of a disaster's messages, newest first. Pages are
+     * keyed on the message time and ID of the last message of the previous
+     * page, so scrolling back through a long incident reads only the rows
+     * shown.
+     *
+     * @param disasterId The ID of the disaster whose messages are to be
+     * retrieved.
+     * @param after The position after which the page starts, or {@code null}
+     * for the latest page.
+     * @param pageSize The maximum number of messages to return.
+     * @return A {@code List} of at most {@code pageSize}
+     * {@code DisasterMessage} objects, newest first.
+     */
+    public List<DisasterMessage> getDisasterMessagesPage(int disasterId, MessageCursor after, int pageSize) {
+        List<DisasterMessage> messages = new ArrayList<>();
+
+        StringBuilder sql = new StringBuilder(TIMELINE_SELECT).append("WHERE dm.disasterId = ?");
+        if (after != null) {
+            // Written out, as MySQL does not range-optimize the row-constructor form
+            sql.append(" AND (dm.messageTime < ? OR (dm.messageTime = ? AND dm.id < ?))");
+        }
+        sql.append(" ORDER BY dm.messageTime DESC, dm.id DESC LIMIT ?");
+
+        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            stmt.setInt(index++, disasterId);
+            if (after != null) {
+                Timestamp messageTime = Timestamp.valueOf(after.getMessageTime());
+                stmt.setTimestamp(index++, messageTime);
+                stmt.setTimestamp(index++, messageTime);
+                stmt.setInt(index++, after.getId());
+            }
+            stmt.setInt(index, pageSize);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                messages.add(mapTimelineMessage(rs));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return messages;
+    }
+
+    /**
+     * Maps the current row of a timeline query to a {@code DisasterMessage}
+     * object.
+     *
+     * @param rs The result set positioned on the row to map.
+     * @return The mapped {@code DisasterMessage} object.
+     * @throws SQLException If a column cannot be read.
+     */
+    private DisasterMessage mapTimelineMessage(ResultSet rs) throws SQLException {
+        DisasterMessage message = new DisasterMessage();
+        message.setId(rs.getInt("id"));
+        message.setDisasterId(rs.getInt("disasterId"));
+        message.setMessageTime(rs.getTimestamp("messageTime").toLocalDateTime());
+        message.setDepartmentName(rs.getString("department_name"));
+        message.setRoleName(rs.getString("role_name"));
+        message.setMessagedByFullName(rs.getString("first_name") + " " + rs.getString("last_name"));
+        message.setMessage(rs.getString("message"));
+        message.setApprovalStatus(rs.getInt("approval_status"));
+        message.setMessageType(MessageType.fromColumn(rs.getString("message_type")));
+        return message;
+    }
+
+    /**
+     * Retrieves a disaster's messages of one type, newest first.
+     *
+     * @param disasterId The ID of the disaster whose messages are to be
+     * retrieved.
+     * @param messageType The type of the messages.
+     * @return A {@code List} of {@code DisasterMessage} objects of the given
+     * type, newest first.
+     */
+    public List<DisasterMessage> getMessagesByType(int disasterId, MessageType messageType) {
+        List<DisasterMessage> messages = new ArrayList<>();
+        String sql = TIMELINE_SELECT
+                + "WHERE dm.disasterId = ? AND dm.message_type = ? "
+                + "ORDER BY dm.messageTime DESC, dm.id DESC";
+
+        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+            stmt.setInt(1, disasterId);
+            stmt.setString(2, messageType.name());
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                messages.add(mapTimelineMessage(rs));
             }
 
         } catch (SQLException e) {
@@ -92,31 +481,65 @@ public class DisasterMessageDAO {
     }
 
     /**
-     * Retrieves disaster messages that match a specific prefix for a given
-     * disaster.
+     * Retrieves the approval status of each of a disaster's messages of one
+     * type, such as its resource requests, so that copies held in memory can
+     * be brought up to date. The lookup reads only the
+     * {@code (disasterId, message_type, approval_status)} index.
+     *
+     * @param disasterId The ID of the disaster.
+     * @param messageType The type of the messages.
+     * @return The approval status of each message, by message ID. Empty if
+     * the query fails.
+     */
+    public Map<Integer, Integer> getApprovalStatuses(int disasterId, MessageType messageType) {
+        Map<Integer, Integer> approvalStatuses = new HashMap<>();
+        String sql = "SELECT id, approval_status FROM disaster_messages WHERE disasterId = ? AND message_type = ?";
+
+        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+            stmt.setInt(1, disasterId);
+            stmt.setString(2, messageType.name());
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                approvalStatuses.put(rs.getInt("id"), rs.getInt("approval_status"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return approvalStatuses;
+    }
+
+    /**
+     * Retrieves a disaster's messages of one type that have no approval
+     * decision yet, such as its open resource requests. The lookup is a seek
+     * on the {@code (disasterId, message_type, approval_status)} index.
      *
      * @param disasterId The ID of the disaster whose messages are to be
      * retrieved.
-     * @param prefix The prefix to filter the messages by.
-     * @return A {@code List} of {@code DisasterMessage} objects matching the
-     * specified prefix.
+     * @param messageType The type of the messages.
+     * @return A {@code List} of the undecided {@code DisasterMessage} objects
+     * of the given type.
      */
-    public List<DisasterMessage> getMessagesByPrefix(int disasterId, String prefix) {
+    public List<DisasterMessage> getPendingMessagesByType(int disasterId, MessageType messageType) {
         List<DisasterMessage> messages = new ArrayList<>();
-        String sql = "SELECT * FROM disaster_messages WHERE disasterId = ? AND approval_status IS NULL AND message LIKE ?";
+        String sql = "SELECT * FROM disaster_messages WHERE disasterId = ? AND message_type = ? AND approval_status IS NULL";
 
         try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
 
             stmt.setInt(1, disasterId);
-            stmt.setString(2, prefix + "%");
+            stmt.setString(2, messageType.name());
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
                 DisasterMessage message = new DisasterMessage();
                 message.setId(rs.getInt("id"));
+                message.setDisasterId(rs.getInt("disasterId"));
                 message.setMessageTime(rs.getTimestamp("messageTime").toLocalDateTime());
                 message.setDepartmentName(rs.getString("departmentId"));
                 message.setMessage(rs.getString("message"));
+                message.setMessageType(messageType);
                 messages.add(message);
             }
         } catch (SQLException e) {
@@ -127,23 +550,164 @@ public class DisasterMessageDAO {
     }
 
     /**
-     * Updates the approval status of a disaster message in the database.
+     * Retrieves every pending resource request of the open and in-progress
+     * disasters in one query, for the pending-request inbox. Requests are
+     * ordered by their disaster's priority, highest first, and then by age,
+     * oldest first. Each active disaster's requests are a seek on the
+     * {@code (disasterId, message_type, approval_status)} index.
+     *
+     * @param asOf The time the disaster priorities are ranked at.
+     * @return A {@code List} of {@code PendingRequest} objects in inbox order.
+     */
+    public List<PendingRequest> getPendingRequestInbox(LocalDateTime asOf) {
+        List<PendingRequest> requests = new ArrayList<>();
+        String sql = "SELECT dm.id, dm.disasterId, dm.messageTime, dm.message, dp.department_name, "
+                + "d.type, d.location, d.severity, d.status, " + DisasterDAO.PRIORITY_SQL + " AS priority "
+                + "FROM disasters d "
+                + "JOIN disaster_messages dm ON dm.disasterId = d.id "
+                + "AND dm.message_type = 'REQUEST' AND dm.approval_status IS NULL "
+                + "JOIN departments dp ON dm.departmentId = dp.department_id "
+                + "WHERE d.status IN ('Open', 'In Progress') "
+                + "ORDER BY priority DESC, dm.messageTime, dm.id";
+
+        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(asOf));
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                PendingRequest request = new PendingRequest();
+                request.setMessageId(rs.getInt("id"));
+                request.setDisasterId(rs.getInt("disasterId"));
+                request.setMessageTime(rs.getTimestamp("messageTime").toLocalDateTime());
+                request.setMessage(rs.getString("message"));
+                request.setDepartmentName(rs.getString("department_name"));
+                request.setDisasterType(rs.getString("type"));
+                request.setLocation(rs.getString("location"));
+                request.setSeverity(rs.getInt("severity"));
+                request.setStatus(rs.getString("status"));
+                request.setPriority(rs.getInt("priority"));
+                requests.add(request);
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return requests;
+    }
+
+    /**
+     * Records the approval decision on a disaster message in the database,
+     * unless the message has already been decided.
      *
      * @param disasterMessage The {@code DisasterMessage} object containing the
      * ID and new approval status to update.
+     * @return {@code true} if this call decided the message, {@code false} if
+     * it had already been decided or the update failed.
+     * @see #updateDisasterMessage(Connection, DisasterMessage)
      */
-    public void updateDisasterMessage(DisasterMessage disasterMessage) {
-        String sql = "UPDATE disaster_messages SET approval_status = ? WHERE id = ?";
+    public boolean updateDisasterMessage(DisasterMessage disasterMessage) {
+        try {
+            return UnitOfWork.call(connection -> updateDisasterMessage(connection, disasterMessage));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
+    /**
+     * Records the approval decision on a disaster message on the given
+     * connection, as part of a larger transaction. The update is a
+     * compare-and-set: it only applies while the message has no approval
+     * status, so when two administrators decide the same request at once,
+     * exactly one of them wins and neither has to lock the row first.
+     *
+     * @param connection The connection of the transaction.
+     * @param disasterMessage The {@code DisasterMessage} object containing the
+     * ID and new approval status to update.
+     * @return {@code true} if this call decided the message, {@code false} if
+     * it had already been decided.
+     * @throws SQLException If the update fails.
+     */
+    public boolean updateDisasterMessage(Connection connection, DisasterMessage disasterMessage) throws SQLException {
+        String sql = "UPDATE disaster_messages SET approval_status = ? WHERE id = ? AND approval_status IS NULL";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
 
             stmt.setInt(1, disasterMessage.getApprovalStatus());
             stmt.setInt(2, disasterMessage.getId());
 
-            stmt.executeUpdate();
+            if (stmt.executeUpdate() != 1) {
+                return false;
+            }
+        }
+        releasePendingRequests(connection, List.of(disasterMessage.getId()));
+        return true;
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+    /**
+     * Records the approval decision on several disaster messages as one JDBC
+     * batch on the given connection, as part of a larger transaction. Like
+     * {@link #updateDisasterMessage(Connection, DisasterMessage)}, each update
+     * only applies to a message that has not been decided yet.
+     *
+     * @param connection The connection of the transaction.
+     * @param disasterMessages The messages to update, each with its ID and new
+     * approval status set.
+     * @return The messages this call decided, in the order given. Messages
+     * that had already been decided are left out.
+     * @throws SQLException If the update fails.
+     */
+    public List<DisasterMessage> updateDisasterMessages(Connection connection, List<DisasterMessage> disasterMessages) throws SQLException {
+        List<DisasterMessage> decided = new ArrayList<>();
+        if (disasterMessages.isEmpty()) {
+            return decided;
+        }
+        String sql = "UPDATE disaster_messages SET approval_status = ? WHERE id = ? AND approval_status IS NULL";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+            for (DisasterMessage disasterMessage : disasterMessages) {
+                stmt.setInt(1, disasterMessage.getApprovalStatus());
+                stmt.setInt(2, disasterMessage.getId());
+                stmt.addBatch();
+            }
+            int[] updateCounts = stmt.executeBatch();
+
+            // One count per message; 0 means another caller decided it first
+            for (int i = 0; i < disasterMessages.size() && i < updateCounts.length; i++) {
+                if (updateCounts[i] == 1) {
+                    decided.add(disasterMessages.get(i));
+                }
+            }
+        }
+
+        List<Integer> decidedIds = new ArrayList<>(decided.size());
+        for (DisasterMessage disasterMessage : decided) {
+            decidedIds.add(disasterMessage.getId());
+        }
+        releasePendingRequests(connection, decidedIds);
+        return decided;
+    }
+
+    /**
+     * The change an insert makes to one disaster's activity counters.
+     */
+    private static final class ActivityDelta {
+
+        private int messages;
+        private int requests;
+        private LocalDateTime latest;
+
+        private void add(DisasterMessage disasterMessage) {
+            messages++;
+            if (disasterMessage.getMessageType() == MessageType.REQUEST) {
+                requests++;
+            }
+            if (latest == null || disasterMessage.getMessageTime().isAfter(latest)) {
+                latest = disasterMessage.getMessageTime();
+            }
         }
     }
 }
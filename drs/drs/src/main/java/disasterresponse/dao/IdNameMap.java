@@ -0,0 +1,97 @@
+package disasterresponse.dao;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code IdNameMap} class is an immutable two-way mapping between the IDs
+ * and names of a small reference table, such as {@code user_roles} or
+ * {@code departments}.
+ *
+ * <p>
+ * IDs are kept in a sorted {@code int} array and looked up by binary search,
+ * so lookups by ID do not box the key. Names are looked up through a hash
+ * map.</p>
+ *
+ * @see ReferenceDataCache
+ *
+ * @author 12236202
+ */
+public final class IdNameMap {
+
+    private final int[] ids;
+    private final String[] names;
+    private final Map<String, Integer> indexByName;
+
+    /**
+     * Constructs a new {@code IdNameMap} from parallel arrays of IDs and
+     * names. The arrays are copied.
+     *
+     * @param ids The IDs of the rows.
+     * @param names The names of the rows, in the same order as {@code ids}.
+     */
+    public IdNameMap(int[] ids, String[] names) {
+        if (ids.length != names.length) {
+            throw new IllegalArgumentException("ids and names must have the same length");
+        }
+
+        // Sort both arrays by ID so that lookups can use binary search
+        Integer[] order = new Integer[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(ids[a], ids[b]));
+
+        this.ids = new int[ids.length];
+        this.names = new String[names.length];
+        this.indexByName = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < order.length; i++) {
+            this.ids[i] = ids[order[i]];
+            this.names[i] = names[order[i]];
+            this.indexByName.put(this.names[i], i);
+        }
+    }
+
+    /**
+     * Gets the name for the given ID.
+     *
+     * @param id The ID to look up.
+     * @return The name, or {@code null} if there is no row with that ID.
+     */
+    public String getName(int id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? names[index] : null;
+    }
+
+    /**
+     * Gets the ID for the given name.
+     *
+     * @param name The name to look up.
+     * @return The ID, or -1 if there is no row with that name.
+     */
+    public int getId(String name) {
+        Integer index = indexByName.get(name);
+        return index != null ? ids[index] : -1;
+    }
+
+    /**
+     * Gets all names, ordered by ID.
+     *
+     * @return An unmodifiable {@code List} of names.
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * Gets the number of rows in the map.
+     *
+     * @return The number of rows.
+     */
+    public int size() {
+        return ids.length;
+    }
+}
@@ -0,0 +1,172 @@
+package disasterresponse.dao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The {@code ReferenceDataCache} class keeps the {@code user_roles} and
+ * {@code departments} tables in memory. These tables are tiny and almost never
+ * change, so the DAOs answer role and department lookups from this cache
+ * instead of querying the database each time.
+ *
+ * <p>
+ * Each table is loaded on first use and reloaded once the cached copy is older
+ * than the time-to-live. {@link #reload()} forces a reload, for example after
+ * the tables have been edited. If a load fails, the previously loaded data
+ * is kept and served, and the next attempt waits for a delay that doubles
+ * with every failure, up to the time-to-live, so lookups do not query a
+ * database that is down. This class uses the Singleton pattern so that all
+ * DAOs share one copy.</p>
+ *
+ * @see IdNameMap
+ * @see UserRoleDAO
+ * @see DepartmentDAO
+ *
+ * @author 12236202
+ */
+public class ReferenceDataCache {
+
+    private static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long MIN_RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    private static final IdNameMap EMPTY = new IdNameMap(new int[0], new String[0]);
+
+    private static ReferenceDataCache instance;
+
+    private final CachedTable userRoles;
+    private final CachedTable departments;
+    private volatile long ttlMillis = DEFAULT_TTL_MILLIS;
+
+    private ReferenceDataCache() {
+        this(new UserRoleDAO()::loadUserRoles, new DepartmentDAO()::loadDepartments);
+    }
+
+    /**
+     * Constructs a cache that loads its tables with the given loaders.
+     *
+     * @param userRoleLoader Reads the user roles, or returns {@code null} if
+     * they could not be read.
+     * @param departmentLoader Reads the departments, or returns {@code null}
+     * if they could not be read.
+     */
+    ReferenceDataCache(Supplier<IdNameMap> userRoleLoader, Supplier<IdNameMap> departmentLoader) {
+        userRoles = new CachedTable(userRoleLoader);
+        departments = new CachedTable(departmentLoader);
+    }
+
+    /**
+     * Gets the singleton instance of {@code ReferenceDataCache}.
+     *
+     * @return The singleton instance of {@code ReferenceDataCache}.
+     */
+    public static synchronized ReferenceDataCache getInstance() {
+        if (instance == null) {
+            instance = new ReferenceDataCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the user roles, loading them if they are not cached or have
+     * expired.
+     *
+     * @return The role ID to role name mapping.
+     */
+    public IdNameMap getUserRoles() {
+        return userRoles.get();
+    }
+
+    /**
+     * Gets the departments, loading them if they are not cached or have
+     * expired.
+     *
+     * @return The department ID to department name mapping.
+     */
+    public IdNameMap getDepartments() {
+        return departments.get();
+    }
+
+    /**
+     * Reloads both tables from the database. A table that fails to load keeps
+     * its previously cached contents.
+     */
+    public void reload() {
+        userRoles.reload();
+        departments.reload();
+    }
+
+    /**
+     * Discards the cached data so that the next lookup reloads it.
+     */
+    public void invalidate() {
+        userRoles.clear();
+        departments.clear();
+    }
+
+    /**
+     * Sets how long loaded data is served before it is reloaded.
+     *
+     * @param ttlMillis The time-to-live in milliseconds.
+     */
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * One cached reference table together with the time it was loaded, and
+     * when a failed load may next be retried.
+     */
+    private final class CachedTable {
+
+        private final Supplier<IdNameMap> loader;
+        private volatile IdNameMap map;
+        private volatile long loadedAt;
+        private volatile long retryAt;
+        private long retryDelayMillis;
+
+        private CachedTable(Supplier<IdNameMap> loader) {
+            this.loader = loader;
+        }
+
+        private IdNameMap get() {
+            if (isDue()) {
+                synchronized (this) {
+                    // Another thread may have reloaded while this one was waiting
+                    if (isDue()) {
+                        reload();
+                    }
+                }
+            }
+            IdNameMap loaded = map;
+            return loaded != null ? loaded : EMPTY;
+        }
+
+        /**
+         * Checks whether the table has expired and no failed load is being
+         * backed off from.
+         */
+        private boolean isDue() {
+            long now = System.currentTimeMillis();
+            return now - loadedAt >= ttlMillis && now >= retryAt;
+        }
+
+        private synchronized void clear() {
+            map = null;
+            loadedAt = 0;
+            retryAt = 0;
+            retryDelayMillis = 0;
+        }
+
+        private synchronized void reload() {
+            IdNameMap loaded = loader.get();
+            if (loaded != null) {
+                map = loaded;
+                loadedAt = System.currentTimeMillis();
+                retryAt = 0;
+                retryDelayMillis = 0;
+            } else {
+                retryDelayMillis = Math.min(Math.max(retryDelayMillis * 2, MIN_RETRY_DELAY_MILLIS), ttlMillis);
+                retryAt = System.currentTimeMillis() + retryDelayMillis;
+            }
+        }
+    }
+}
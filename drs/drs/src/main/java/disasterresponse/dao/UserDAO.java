@@ -64,6 +64,53 @@ public class UserDAO {
         return user;
     }
 
+    /**
+     * Retrieves a user together with their role name and department name and
+     * checks the password, all in a single query.
+     *
+     * @param username The username of the user signing in.
+     * @param password The password entered by the user.
+     * @return The {@code User} object with role and department names set if
+     * the credentials match, otherwise {@code null}.
+     */
+    public User getUserForLogin(String username, String password) {
+        User user = null;
+
+        String query = "SELECT u.user_id, u.username, u.first_name, u.last_name, u.password, u.user_role, "
+                + "u.department_id, u.created_by, ur.role_name, d.department_name "
+                + "FROM users u "
+                + "LEFT JOIN user_roles ur ON u.user_role = ur.role_id "
+                + "LEFT JOIN departments d ON u.department_id = d.department_id "
+                + "WHERE u.username = ?";
+
+        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setString(1, username);
+
+            ResultSet resultSet = statement.executeQuery();
+
+            // Compare in Java so the check stays case-sensitive regardless of column collation
+            if (resultSet.next() && password.equals(resultSet.getString("password"))) {
+                user = new User();
+                user.setUserId(resultSet.getInt("user_id"));
+                user.setUsername(resultSet.getString("username"));
+                user.setFirstName(resultSet.getString("first_name"));
+                user.setLastName(resultSet.getString("last_name"));
+                user.setPassword(resultSet.getString("password"));
+                user.setUserRole(resultSet.getInt("user_role"));
+                user.setUserRoleName(resultSet.getString("role_name"));
+                user.setDepartmentId(resultSet.getInt("department_id"));
+                user.setDepartmentName(resultSet.getString("department_name"));
+                user.setCreatedBy(resultSet.getInt("created_by"));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return user;
+    }
+
     /**
      * Retrieves all user records along with their roles and departments.
      *
@@ -99,47 +146,21 @@ public class UserDAO {
     }
 
     /**
-     * Retrieves all user roles from the database.
+     * Retrieves all user roles from the reference data cache.
      *
      * @return A {@code List} of role names.
      */
     public List<String> getUserRoles() {
-        List<String> roles = new ArrayList<>();
-        String sql = "SELECT role_name FROM user_roles";
-
-        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                roles.add(rs.getString("role_name"));
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return roles;
+        return new ArrayList<>(ReferenceDataCache.getInstance().getUserRoles().getNames());
     }
 
     /**
-     * Retrieves all department names from the database.
+     * Retrieves all department names from the reference data cache.
      *
      * @return A {@code List} of department names.
      */
     public List<String> getDepartments() {
-        List<String> departments = new ArrayList<>();
-        String sql = "SELECT department_name FROM departments";
-
-        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                departments.add(rs.getString("department_name"));
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return departments;
+        return new ArrayList<>(ReferenceDataCache.getInstance().getDepartments().getNames());
     }
 
     /**
@@ -204,51 +225,25 @@ public class UserDAO {
     }
 
     /**
-     * Retrieves the user role ID based on the provided role name.
+     * Retrieves the user role ID based on the provided role name from the
+     * reference data cache.
      *
      * @param roleName The name of the user role.
      * @return The ID of the user role, or -1 if not found.
      */
     private int getUserRoleId(String roleName) {
-        String sql = "SELECT role_id FROM user_roles WHERE role_name = ?";
-        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
-
-            stmt.setString(1, roleName);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getInt("role_id");
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return -1; // Default value if role not found
+        return ReferenceDataCache.getInstance().getUserRoles().getId(roleName);
     }
 
     /**
-     * Retrieves the department ID based on the provided department name.
+     * Retrieves the department ID based on the provided department name from
+     * the reference data cache.
      *
      * @param departmentName The name of the department.
      * @return The ID of the department, or -1 if not found.
      */
     private int getDepartmentId(String departmentName) {
-        String sql = "SELECT department_id FROM departments WHERE department_name = ?";
-        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
-
-            stmt.setString(1, departmentName);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getInt("department_id");
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return -1; // Default value if department not found
+        return ReferenceDataCache.getInstance().getDepartments().getId(departmentName);
     }
 
     /**
@@ -6,6 +6,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The {@code UserRoleDAO} class provides data access methods for the
@@ -14,37 +16,51 @@ import java.sql.SQLException;
  *
  * <p>
  * This class manages user role-related database operations, specifically
- * querying for a user role by its ID.</p>
+ * querying for a user role by its ID. Lookups by ID are answered from the
+ * {@code ReferenceDataCache}, which uses {@link #loadUserRoles()} to read the
+ * whole table.</p>
  *
  * @see DatabaseUtil
+ * @see ReferenceDataCache
  *
  * @author 12236202
  */
 public class UserRoleDAO {
 
     /**
-     * Retrieves the role name based on the provided role ID.
+     * Retrieves the role name based on the provided role ID from the reference
+     * data cache.
      *
      * @param roleId The ID of the user role.
      * @return The name of the user role if it exists; {@code null} otherwise.
      */
     public String getUserRoleById(int roleId) {
-        String sql = "SELECT role_name FROM user_roles WHERE role_id = ?";
-        String roleName = null;
+        return ReferenceDataCache.getInstance().getUserRoles().getName(roleId);
+    }
 
-        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
+    /**
+     * Reads all user roles from the database.
+     *
+     * @return An {@code IdNameMap} of role IDs and names, or {@code null} if
+     * the table could not be read.
+     */
+    public IdNameMap loadUserRoles() {
+        String sql = "SELECT role_id, role_name FROM user_roles";
+        List<Integer> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
 
-            stmt.setInt(1, roleId);
-            ResultSet rs = stmt.executeQuery();
+        try (Connection connection = DatabaseUtil.getConnection(); PreparedStatement stmt = connection.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
 
-            if (rs.next()) {
-                roleName = rs.getString("role_name");
+            while (rs.next()) {
+                ids.add(rs.getInt("role_id"));
+                names.add(rs.getString("role_name"));
             }
 
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
 
-        return roleName;
+        return new IdNameMap(ids.stream().mapToInt(Integer::intValue).toArray(), names.toArray(String[]::new));
     }
 }
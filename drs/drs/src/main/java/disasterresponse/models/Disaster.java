@@ -1,6 +1,8 @@
 package disasterresponse.models;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 /**
  * The {@code Disaster} class represents a disaster event in the system. It
@@ -11,6 +13,13 @@ import java.time.LocalDateTime;
  * This class serves as a model for storing and managing disaster-related data
  * throughout the application.</p>
  *
+ * <p>
+ * The report time is kept as epoch milliseconds, read as UTC from the local
+ * date and time. The time since reporting is derived from it when it is
+ * read, as of the clock reading the disaster was loaded at. The priority is
+ * scored for a whole listing at that same reading, so every row of a listing
+ * ages from the same moment.</p>
+ *
  * @see disasterresponse.dao.DisasterDAO
  * @see disasterresponse.services.DisasterService
  *
@@ -18,6 +27,13 @@ import java.time.LocalDateTime;
  */
 public class Disaster {
 
+    /**
+     * Marks a time that has not been set.
+     */
+    private static final long UNSET = Long.MIN_VALUE;
+
+    private static final long HOUR_MILLIS = 60L * 60 * 1000;
+
     private int id;
     private String type;
     private String location;
@@ -25,9 +41,13 @@ public class Disaster {
     private String description;
     private String status;
     private int reportedBy;
-    private LocalDateTime reportedAt;
+    private long reportedAtMillis = UNSET;
+    private LocalDateTime updatedAt;
+    private int messageCount;
+    private int pendingRequestCount;
+    private LocalDateTime lastActivityAt;
     private int priority;
-    private String timeSinceReporting;
+    private long asOfMillis = UNSET;
 
     /**
      * Gets the ID of the disaster.
@@ -161,7 +181,9 @@ public class Disaster {
      * @return The date and time when the disaster was reported.
      */
     public LocalDateTime getReportedAt() {
-        return reportedAt;
+        return reportedAtMillis != UNSET
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(reportedAtMillis), ZoneOffset.UTC)
+                : null;
     }
 
     /**
@@ -170,7 +192,133 @@ public class Disaster {
      * @param reportedAt The date and time when the disaster was reported.
      */
     public void setReportedAt(LocalDateTime reportedAt) {
-        this.reportedAt = reportedAt;
+        this.reportedAtMillis = reportedAt != null ? reportedAt.toInstant(ZoneOffset.UTC).toEpochMilli() : UNSET;
+    }
+
+    /**
+     * Gets the time when the disaster was reported, in epoch milliseconds.
+     *
+     * @return The report time in milliseconds.
+     */
+    public long getReportedAtMillis() {
+        return reportedAtMillis;
+    }
+
+    /**
+     * Sets the time when the disaster was reported, in epoch milliseconds.
+     *
+     * @param reportedAtMillis The report time in milliseconds.
+     */
+    public void setReportedAtMillis(long reportedAtMillis) {
+        this.reportedAtMillis = reportedAtMillis;
+    }
+
+    /**
+     * Gets the clock reading the derived time since reporting and priority
+     * are measured up to.
+     *
+     * @return The clock reading, or {@code null} if it has not been set.
+     */
+    public LocalDateTime getAsOf() {
+        return asOfMillis != UNSET
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(asOfMillis), ZoneOffset.UTC)
+                : null;
+    }
+
+    /**
+     * Gets the clock reading the derived time since reporting is measured up
+     * to, in epoch milliseconds.
+     *
+     * @return The clock reading in milliseconds.
+     */
+    public long getAsOfMillis() {
+        return asOfMillis;
+    }
+
+    /**
+     * Sets the clock reading the derived time since reporting is measured up
+     * to, in epoch milliseconds. Usually one reading is shared by every
+     * disaster of a listing.
+     *
+     * @param asOfMillis The clock reading in milliseconds.
+     */
+    public void setAsOfMillis(long asOfMillis) {
+        this.asOfMillis = asOfMillis;
+    }
+
+    /**
+     * Gets the date and time when the disaster record was last changed.
+     *
+     * @return The date and time of the last change.
+     */
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Sets the date and time when the disaster record was last changed.
+     *
+     * @param updatedAt The date and time of the last change.
+     */
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Gets the number of messages posted about the disaster.
+     *
+     * @return The number of messages.
+     */
+    public int getMessageCount() {
+        return messageCount;
+    }
+
+    /**
+     * Sets the number of messages posted about the disaster.
+     *
+     * @param messageCount The number of messages.
+     */
+    public void setMessageCount(int messageCount) {
+        this.messageCount = messageCount;
+    }
+
+    /**
+     * Gets the number of resource requests for the disaster that are waiting
+     * for a decision.
+     *
+     * @return The number of pending requests.
+     */
+    public int getPendingRequestCount() {
+        return pendingRequestCount;
+    }
+
+    /**
+     * Sets the number of resource requests for the disaster that are waiting
+     * for a decision.
+     *
+     * @param pendingRequestCount The number of pending requests.
+     */
+    public void setPendingRequestCount(int pendingRequestCount) {
+        this.pendingRequestCount = pendingRequestCount;
+    }
+
+    /**
+     * Gets the date and time of the latest message about the disaster.
+     *
+     * @return The date and time of the latest message, or {@code null} if no
+     * message has been posted.
+     */
+    public LocalDateTime getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    /**
+     * Sets the date and time of the latest message about the disaster.
+     *
+     * @param lastActivityAt The date and time of the latest message.
+     */
+    public void setLastActivityAt(LocalDateTime lastActivityAt) {
+        this.lastActivityAt = lastActivityAt;
     }
 
     /**
@@ -191,22 +339,54 @@ public class Disaster {
         this.priority = priority;
     }
 
+    /**
+     * Gets the number of full hours from the report time to the clock
+     * reading the disaster was loaded at.
+     *
+     * @return The number of hours, or 0 if either time is not set.
+     */
+    public long getHoursSinceReporting() {
+        if (reportedAtMillis == UNSET || asOfMillis == UNSET) {
+            return 0;
+        }
+        return (asOfMillis - reportedAtMillis) / HOUR_MILLIS;
+    }
+
     /**
      * Gets the time elapsed since the disaster was reported.
      *
-     * @return The time elapsed since the disaster was reported.
+     * @return The time elapsed since the disaster was reported, or
+     * {@code null} if it has not been measured.
      */
     public String getTimeSinceReporting() {
-        return timeSinceReporting;
+        if (reportedAtMillis == UNSET || asOfMillis == UNSET) {
+            return null;
+        }
+        return getHoursSinceReporting() + " hours ago";
     }
 
     /**
-     * Sets the time elapsed since the disaster was reported.
+     * Creates a copy of the disaster, so that changes made to one are not
+     * seen through the other.
      *
-     * @param timeSinceReporting The time elapsed since the disaster was
-     * reported.
+     * @return A new {@code Disaster} with the same values.
      */
-    public void setTimeSinceReporting(String timeSinceReporting) {
-        this.timeSinceReporting = timeSinceReporting;
+    public Disaster copy() {
+        Disaster copy = new Disaster();
+        copy.id = id;
+        copy.type = type;
+        copy.location = location;
+        copy.severity = severity;
+        copy.description = description;
+        copy.status = status;
+        copy.reportedBy = reportedBy;
+        copy.reportedAtMillis = reportedAtMillis;
+        copy.updatedAt = updatedAt;
+        copy.messageCount = messageCount;
+        copy.pendingRequestCount = pendingRequestCount;
+        copy.lastActivityAt = lastActivityAt;
+        copy.priority = priority;
+        copy.asOfMillis = asOfMillis;
+        return copy;
     }
 }
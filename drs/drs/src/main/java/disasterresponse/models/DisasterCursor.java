@@ -0,0 +1,65 @@
+package disasterresponse.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * The {@code DisasterCursor} class marks a position in a disaster listing that
+ * is ordered by report time and ID, newest first. The next page of the listing
+ * starts with the first disaster after the cursor.
+ *
+ * <p>
+ * A cursor is built from the last disaster of the previous page, so paging
+ * does not depend on row offsets and stays cheap however far back the listing
+ * goes.</p>
+ *
+ * @see disasterresponse.dao.DisasterDAO
+ * @see Disaster
+ *
+ * @author 12236202
+ */
+public final class DisasterCursor {
+
+    private final LocalDateTime reportedAt;
+    private final int id;
+
+    /**
+     * Constructs a new {@code DisasterCursor}.
+     *
+     * @param reportedAt The report time of the last disaster already loaded.
+     * @param id The ID of the last disaster already loaded.
+     */
+    public DisasterCursor(LocalDateTime reportedAt, int id) {
+        this.reportedAt = reportedAt;
+        this.id = id;
+    }
+
+    /**
+     * Creates a cursor positioned after the given disaster.
+     *
+     * @param lastLoaded The last disaster of the previous page, or
+     * {@code null} for the first page.
+     * @return A cursor after {@code lastLoaded}, or {@code null} if
+     * {@code lastLoaded} is {@code null}.
+     */
+    public static DisasterCursor after(Disaster lastLoaded) {
+        return lastLoaded == null ? null : new DisasterCursor(lastLoaded.getReportedAt(), lastLoaded.getId());
+    }
+
+    /**
+     * Gets the report time of the last disaster already loaded.
+     *
+     * @return The report time.
+     */
+    public LocalDateTime getReportedAt() {
+        return reportedAt;
+    }
+
+    /**
+     * Gets the ID of the last disaster already loaded.
+     *
+     * @return The disaster ID.
+     */
+    public int getId() {
+        return id;
+    }
+}
@@ -28,6 +28,7 @@ public class DisasterMessage {
     private LocalDateTime messageTime;
     private String roleName;
     private int approvalStatus;
+    private MessageType messageType = MessageType.UPDATE;
 
     // Getters and Setters
     /**
@@ -209,4 +210,22 @@ public class DisasterMessage {
     public void setApprovalStatus(int approvalStatus) {
         this.approvalStatus = approvalStatus;
     }
+
+    /**
+     * Gets the type of the message.
+     *
+     * @return The type of the message.
+     */
+    public MessageType getMessageType() {
+        return messageType;
+    }
+
+    /**
+     * Sets the type of the message.
+     *
+     * @param messageType The type of the message.
+     */
+    public void setMessageType(MessageType messageType) {
+        this.messageType = messageType;
+    }
 }
@@ -0,0 +1,65 @@
+package disasterresponse.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * The {@code MessageCursor} class marks a position in a disaster's message
+ * timeline that is ordered by message time and ID, newest first. The next page
+ * of the timeline starts with the first message after the cursor, that is, the
+ * next older one.
+ *
+ * <p>
+ * A cursor is built from the last message of the previous page, so paging
+ * back through a long incident does not depend on row offsets.</p>
+ *
+ * @see disasterresponse.dao.DisasterMessageDAO
+ * @see DisasterMessage
+ *
+ * @author 12236202
+ */
+public final class MessageCursor {
+
+    private final LocalDateTime messageTime;
+    private final int id;
+
+    /**
+     * Constructs a new {@code MessageCursor}.
+     *
+     * @param messageTime The message time of the last message already loaded.
+     * @param id The ID of the last message already loaded.
+     */
+    public MessageCursor(LocalDateTime messageTime, int id) {
+        this.messageTime = messageTime;
+        this.id = id;
+    }
+
+    /**
+     * Creates a cursor positioned after the given message.
+     *
+     * @param lastLoaded The last message of the previous page, or
+     * {@code null} for the first page.
+     * @return A cursor after {@code lastLoaded}, or {@code null} if
+     * {@code lastLoaded} is {@code null}.
+     */
+    public static MessageCursor after(DisasterMessage lastLoaded) {
+        return lastLoaded == null ? null : new MessageCursor(lastLoaded.getMessageTime(), lastLoaded.getId());
+    }
+
+    /**
+     * Gets the message time of the last message already loaded.
+     *
+     * @return The message time.
+     */
+    public LocalDateTime getMessageTime() {
+        return messageTime;
+    }
+
+    /**
+     * Gets the ID of the last message already loaded.
+     *
+     * @return The message ID.
+     */
+    public int getId() {
+        return id;
+    }
+}
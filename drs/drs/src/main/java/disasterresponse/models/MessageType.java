@@ -0,0 +1,73 @@
+package disasterresponse.models;
+
+/**
+ * The {@code MessageType} enum lists the kinds of disaster message. The type
+ * is stored in the {@code message_type} column of {@code disaster_messages},
+ * so requests and decisions can be found without reading the message text.
+ *
+ * <p>
+ * Each type other than {@link #UPDATE} also has the text prefix that is shown
+ * in front of its messages, such as {@code "[REQUEST]"}. The prefix is only
+ * for display; queries use the type.</p>
+ *
+ * @see DisasterMessage
+ * @see disasterresponse.dao.DisasterMessageDAO
+ *
+ * @author 12236202
+ */
+public enum MessageType {
+
+    /**
+     * A status update or other free text message.
+     */
+    UPDATE(null),
+    /**
+     * A request for resources, waiting for a decision.
+     */
+    REQUEST("[REQUEST]"),
+    /**
+     * The approval of a request.
+     */
+    APPROVE("[APPROVE]"),
+    /**
+     * The rejection of a request.
+     */
+    REJECT("[REJECT]");
+
+    private final String prefix;
+
+    MessageType(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Gets the text prefix shown in front of messages of this type.
+     *
+     * @return The prefix, or {@code null} for {@link #UPDATE}.
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Formats message text for display, with the prefix of this type in
+     * front of it.
+     *
+     * @param text The text entered by the user.
+     * @return The text to be stored and shown.
+     */
+    public String format(String text) {
+        return prefix != null ? prefix + " " + text : text;
+    }
+
+    /**
+     * Gets the type stored in a {@code message_type} column.
+     *
+     * @param value The column value, which may be {@code null}.
+     * @return The matching type, or {@link #UPDATE} if the value is
+     * {@code null}.
+     */
+    public static MessageType fromColumn(String value) {
+        return value != null ? valueOf(value) : UPDATE;
+    }
+}
@@ -0,0 +1,209 @@
+package disasterresponse.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * The {@code PendingRequest} class represents a resource request that is
+ * still waiting for a decision, together with the disaster it was made for.
+ * It is one row of the pending-request inbox, which lists the open requests
+ * of every active disaster at once.
+ *
+ * @see disasterresponse.dao.DisasterMessageDAO#getPendingRequestInbox(LocalDateTime)
+ * @see disasterresponse.services.DisasterService#getPendingRequestInbox()
+ *
+ * @author 12236202
+ */
+public class PendingRequest {
+
+    private int messageId;
+    private int disasterId;
+    private String disasterType;
+    private String location;
+    private int severity;
+    private String status;
+    private int priority;
+    private LocalDateTime messageTime;
+    private String departmentName;
+    private String message;
+
+    // Getters and Setters
+    /**
+     * Gets the ID of the request message.
+     *
+     * @return The ID of the request message.
+     */
+    public int getMessageId() {
+        return messageId;
+    }
+
+    /**
+     * Sets the ID of the request message.
+     *
+     * @param messageId The ID of the request message.
+     */
+    public void setMessageId(int messageId) {
+        this.messageId = messageId;
+    }
+
+    /**
+     * Gets the ID of the disaster the request was made for.
+     *
+     * @return The ID of the disaster.
+     */
+    public int getDisasterId() {
+        return disasterId;
+    }
+
+    /**
+     * Sets the ID of the disaster the request was made for.
+     *
+     * @param disasterId The ID of the disaster.
+     */
+    public void setDisasterId(int disasterId) {
+        this.disasterId = disasterId;
+    }
+
+    /**
+     * Gets the type of the disaster.
+     *
+     * @return The type of the disaster.
+     */
+    public String getDisasterType() {
+        return disasterType;
+    }
+
+    /**
+     * Sets the type of the disaster.
+     *
+     * @param disasterType The type of the disaster.
+     */
+    public void setDisasterType(String disasterType) {
+        this.disasterType = disasterType;
+    }
+
+    /**
+     * Gets the location of the disaster.
+     *
+     * @return The location of the disaster.
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Sets the location of the disaster.
+     *
+     * @param location The location of the disaster.
+     */
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    /**
+     * Gets the severity of the disaster.
+     *
+     * @return The severity of the disaster.
+     */
+    public int getSeverity() {
+        return severity;
+    }
+
+    /**
+     * Sets the severity of the disaster.
+     *
+     * @param severity The severity of the disaster.
+     */
+    public void setSeverity(int severity) {
+        this.severity = severity;
+    }
+
+    /**
+     * Gets the status of the disaster.
+     *
+     * @return The status of the disaster.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the status of the disaster.
+     *
+     * @param status The status of the disaster.
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets the priority of the disaster at the time the inbox was read.
+     *
+     * @return The priority of the disaster.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority of the disaster.
+     *
+     * @param priority The priority of the disaster.
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Gets the date and time when the request was made.
+     *
+     * @return The date and time of the request.
+     */
+    public LocalDateTime getMessageTime() {
+        return messageTime;
+    }
+
+    /**
+     * Sets the date and time when the request was made.
+     *
+     * @param messageTime The date and time of the request.
+     */
+    public void setMessageTime(LocalDateTime messageTime) {
+        this.messageTime = messageTime;
+    }
+
+    /**
+     * Gets the name of the department that made the request.
+     *
+     * @return The name of the department.
+     */
+    public String getDepartmentName() {
+        return departmentName;
+    }
+
+    /**
+     * Sets the name of the department that made the request.
+     *
+     * @param departmentName The name of the department.
+     */
+    public void setDepartmentName(String departmentName) {
+        this.departmentName = departmentName;
+    }
+
+    /**
+     * Gets the text of the request.
+     *
+     * @return The text of the request.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Sets the text of the request.
+     *
+     * @param message The text of the request.
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,128 @@
+package disasterresponse.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * The {@code PriorityCursor} class marks a position in a disaster listing that
+ * is ordered by status (Open, In Progress, Closed), then by priority, highest
+ * first. The next page of the listing starts with the first disaster after the
+ * cursor.
+ *
+ * <p>
+ * Priority falls as a disaster ages, so every page of one listing is ranked as
+ * of the same moment. The cursor carries that moment from page to page.</p>
+ *
+ * @see disasterresponse.dao.DisasterDAO
+ * @see Disaster
+ *
+ * @author 12236202
+ */
+public final class PriorityCursor {
+
+    private final LocalDateTime asOf;
+    private final int statusRank;
+    private final int priority;
+    private final int id;
+
+    /**
+     * Constructs a new {@code PriorityCursor}.
+     *
+     * @param asOf The moment the listing is ranked at.
+     * @param statusRank The status rank of the last disaster already loaded.
+     * @param priority The priority of the last disaster already loaded.
+     * @param id The ID of the last disaster already loaded.
+     */
+    public PriorityCursor(LocalDateTime asOf, int statusRank, int priority, int id) {
+        this.asOf = asOf;
+        this.statusRank = statusRank;
+        this.priority = priority;
+        this.id = id;
+    }
+
+    /**
+     * Creates a cursor for the first page of a listing ranked at the given
+     * moment.
+     *
+     * @param asOf The moment the listing is ranked at.
+     * @return A cursor before the first disaster.
+     */
+    public static PriorityCursor first(LocalDateTime asOf) {
+        return new PriorityCursor(asOf, -1, 0, 0);
+    }
+
+    /**
+     * Creates a cursor positioned after the given disaster.
+     *
+     * @param asOf The moment the listing is ranked at.
+     * @param lastLoaded The last disaster of the previous page, or
+     * {@code null} for the first page.
+     * @return A cursor after {@code lastLoaded}.
+     */
+    public static PriorityCursor after(LocalDateTime asOf, Disaster lastLoaded) {
+        if (lastLoaded == null) {
+            return first(asOf);
+        }
+        return new PriorityCursor(asOf, statusRank(lastLoaded.getStatus()), lastLoaded.getPriority(), lastLoaded.getId());
+    }
+
+    /**
+     * Gets the rank of a disaster status in the listing order.
+     *
+     * @param status The status of a disaster.
+     * @return 0 for Open, 1 for In Progress and 2 for any other status.
+     */
+    public static int statusRank(String status) {
+        if ("Open".equals(status)) {
+            return 0;
+        }
+        if ("In Progress".equals(status)) {
+            return 1;
+        }
+        return 2;
+    }
+
+    /**
+     * Checks whether this cursor is before the first disaster.
+     *
+     * @return {@code true} if this cursor starts the listing.
+     */
+    public boolean isFirst() {
+        return statusRank < 0;
+    }
+
+    /**
+     * Gets the moment the listing is ranked at.
+     *
+     * @return The ranking time.
+     */
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+
+    /**
+     * Gets the status rank of the last disaster already loaded.
+     *
+     * @return The status rank.
+     */
+    public int getStatusRank() {
+        return statusRank;
+    }
+
+    /**
+     * Gets the priority of the last disaster already loaded.
+     *
+     * @return The priority.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Gets the ID of the last disaster already loaded.
+     *
+     * @return The disaster ID.
+     */
+    public int getId() {
+        return id;
+    }
+}
@@ -0,0 +1,176 @@
+package disasterresponse.priority;
+
+import disasterresponse.models.Disaster;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * The {@code PriorityEngine} interface scores disasters for the priority
+ * listings, the pending-request inbox and the
+ * {@link disasterresponse.services.PriorityIndex}.
+ *
+ * <p>
+ * A score is a base that does not change over time, worked out from the
+ * disaster's type, severity and pending requests, less a fixed penalty for
+ * every full hour since the disaster was reported. Every engine scores this
+ * way so that the same ranking can be worked out by the database with
+ * {@link #toSql()}, per disaster with
+ * {@link #score(Disaster, LocalDateTime)}, for a whole result set with
+ * {@link #scoreAll(String[], int[], int[], long[], long, int[])}, and by the
+ * index from a key that does not decay.</p>
+ *
+ * <p>
+ * Other engines can be plugged in as services of this interface; the first
+ * one found by {@link ServiceLoader} is used. Without one,
+ * {@link WeightedPriorityEngine} is used with the weights from
+ * {@code priority.properties}.</p>
+ *
+ * @see WeightedPriorityEngine
+ * @see PriorityWeights
+ *
+ * @author 12236202
+ */
+public interface PriorityEngine {
+
+    /**
+     * The length of an hour in milliseconds.
+     */
+    long HOUR_MILLIS = 60L * 60 * 1000;
+
+    /**
+     * Gets the engine used by the application, loading it on first use.
+     *
+     * @return The shared {@code PriorityEngine}.
+     */
+    static PriorityEngine getInstance() {
+        return PriorityEngines.INSTANCE;
+    }
+
+    /**
+     * Calculates the part of a score that does not change over time.
+     *
+     * @param type The type of the disaster.
+     * @param severity The severity of the disaster.
+     * @param pendingRequests The number of resource requests waiting for a
+     * decision.
+     * @return The score of the disaster at the moment it was reported.
+     */
+    int baseScore(String type, int severity, int pendingRequests);
+
+    /**
+     * Gets the points a score loses for every full hour since reporting.
+     *
+     * @return The hourly penalty; never negative.
+     */
+    int agePenaltyPerHour();
+
+    /**
+     * Builds an SQL expression over the {@code disasters} columns that gives
+     * the same score as {@link #score(Disaster, LocalDateTime)}. The
+     * expression has one parameter, the time the score is worked out at.
+     *
+     * @return The SQL expression.
+     */
+    String toSql();
+
+    /**
+     * Scores one disaster.
+     *
+     * @param disaster The disaster to score.
+     * @param asOf The time to score the disaster at.
+     * @return The score of the disaster.
+     */
+    default int score(Disaster disaster, LocalDateTime asOf) {
+        return score(disaster, toEpochMillis(asOf));
+    }
+
+    /**
+     * Scores one disaster.
+     *
+     * @param disaster The disaster to score.
+     * @param asOfMillis The time to score the disaster at, from
+     * {@link #toEpochMillis(LocalDateTime)}.
+     * @return The score of the disaster.
+     */
+    default int score(Disaster disaster, long asOfMillis) {
+        long hoursSince = (asOfMillis - disaster.getReportedAtMillis()) / HOUR_MILLIS;
+        return baseScore(disaster.getType(), disaster.getSeverity(), disaster.getPendingRequestCount())
+                - agePenaltyPerHour() * (int) hoursSince;
+    }
+
+    /**
+     * Scores a whole result set held as parallel arrays, one element per
+     * disaster.
+     *
+     * @param types The types of the disasters.
+     * @param severities The severities of the disasters.
+     * @param pendingRequests The pending request counts of the disasters.
+     * @param reportedAtMillis The report times, from
+     * {@link #toEpochMillis(LocalDateTime)}.
+     * @param asOfMillis The time to score the disasters at, from
+     * {@link #toEpochMillis(LocalDateTime)}.
+     * @param scores Receives the score of each disaster.
+     */
+    default void scoreAll(String[] types, int[] severities, int[] pendingRequests, long[] reportedAtMillis,
+            long asOfMillis, int[] scores) {
+        int agePenalty = agePenaltyPerHour();
+        for (int i = 0; i < scores.length; i++) {
+            long hoursSince = (asOfMillis - reportedAtMillis[i]) / HOUR_MILLIS;
+            scores[i] = baseScore(types[i], severities[i], pendingRequests[i]) - agePenalty * (int) hoursSince;
+        }
+    }
+
+    /**
+     * Scores a list of disasters in one batch and sets the priority of each.
+     *
+     * @param disasters The disasters to score.
+     * @param asOf The time to score the disasters at.
+     */
+    default void scoreAll(List<Disaster> disasters, LocalDateTime asOf) {
+        scoreAll(disasters, toEpochMillis(asOf));
+    }
+
+    /**
+     * Scores a list of disasters in one batch and sets the priority of each.
+     * Every disaster is also measured up to the same clock reading, so the
+     * whole listing ages from the moment it was scored at.
+     *
+     * @param disasters The disasters to score.
+     * @param asOfMillis The time to score the disasters at, from
+     * {@link #toEpochMillis(LocalDateTime)}.
+     */
+    default void scoreAll(List<Disaster> disasters, long asOfMillis) {
+        int count = disasters.size();
+        String[] types = new String[count];
+        int[] severities = new int[count];
+        int[] pendingRequests = new int[count];
+        long[] reportedAtMillis = new long[count];
+        for (int i = 0; i < count; i++) {
+            Disaster disaster = disasters.get(i);
+            types[i] = disaster.getType();
+            severities[i] = disaster.getSeverity();
+            pendingRequests[i] = disaster.getPendingRequestCount();
+            reportedAtMillis[i] = disaster.getReportedAtMillis();
+        }
+
+        int[] scores = new int[count];
+        scoreAll(types, severities, pendingRequests, reportedAtMillis, asOfMillis, scores);
+        for (int i = 0; i < count; i++) {
+            disasters.get(i).setPriority(scores[i]);
+            disasters.get(i).setAsOfMillis(asOfMillis);
+        }
+    }
+
+    /**
+     * Converts a time to milliseconds for the batch scorer.
+     *
+     * @param time The time to convert.
+     * @return The time in milliseconds.
+     */
+    static long toEpochMillis(LocalDateTime time) {
+        // Any fixed offset will do; only differences between times are used
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
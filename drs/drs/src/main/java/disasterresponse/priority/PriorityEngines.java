@@ -0,0 +1,23 @@
+package disasterresponse.priority;
+
+import java.util.ServiceLoader;
+
+/**
+ * The {@code PriorityEngines} class holds the engine used by the application.
+ * The engine is loaded the first time {@link PriorityEngine#getInstance()} is
+ * called, by loading this class. The class is not public, so the package can
+ * be exported without exposing it.
+ *
+ * @see PriorityEngine#getInstance()
+ *
+ * @author 12236202
+ */
+final class PriorityEngines {
+
+    static final PriorityEngine INSTANCE = ServiceLoader.load(PriorityEngine.class)
+            .findFirst()
+            .orElseGet(WeightedPriorityEngine::new);
+
+    private PriorityEngines() {
+    }
+}
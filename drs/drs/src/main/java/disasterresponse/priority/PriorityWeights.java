@@ -0,0 +1,161 @@
+package disasterresponse.priority;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The {@code PriorityWeights} class holds the weights used by
+ * {@link WeightedPriorityEngine}: points per level of severity, per pending
+ * resource request and per disaster type, and the points lost for every hour
+ * since reporting.
+ *
+ * <p>
+ * The weights are read from {@code /disasterresponse/priority.properties}.
+ * Any weight that is not set keeps its default, which gives the original
+ * ranking: severity times 100, less one point per hour.</p>
+ *
+ * @see WeightedPriorityEngine
+ *
+ * @author 12236202
+ */
+public class PriorityWeights {
+
+    private static final String RESOURCE = "/disasterresponse/priority.properties";
+    private static final String TYPE_PREFIX = "weight.type.";
+
+    private final int severityWeight;
+    private final int agePenaltyPerHour;
+    private final int pendingRequestWeight;
+    private final Map<String, Integer> typeWeights;
+
+    /**
+     * Creates a set of weights.
+     *
+     * @param severityWeight The points per level of severity.
+     * @param agePenaltyPerHour The points lost for every full hour since
+     * reporting. Must not be negative.
+     * @param pendingRequestWeight The points per pending resource request.
+     * @param typeWeights The points added for each disaster type. Types not in
+     * the map add nothing.
+     * @throws IllegalArgumentException If the age penalty is negative.
+     */
+    public PriorityWeights(int severityWeight, int agePenaltyPerHour, int pendingRequestWeight,
+            Map<String, Integer> typeWeights) {
+        if (agePenaltyPerHour < 0) {
+            throw new IllegalArgumentException("The age penalty must not be negative: " + agePenaltyPerHour);
+        }
+        this.severityWeight = severityWeight;
+        this.agePenaltyPerHour = agePenaltyPerHour;
+        this.pendingRequestWeight = pendingRequestWeight;
+        this.typeWeights = Collections.unmodifiableMap(new LinkedHashMap<>(typeWeights));
+    }
+
+    /**
+     * Gets the default weights: severity times 100, less one point per hour.
+     *
+     * @return The default weights.
+     */
+    public static PriorityWeights defaults() {
+        return new PriorityWeights(100, 1, 0, Map.of());
+    }
+
+    /**
+     * Loads the weights from {@code priority.properties}. If the file is
+     * missing or cannot be read, the default weights are used.
+     *
+     * @return The configured weights.
+     */
+    public static PriorityWeights load() {
+        Properties properties = new Properties();
+        try (InputStream in = PriorityWeights.class.getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                properties.load(in);
+            }
+            return fromProperties(properties);
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return defaults();
+        }
+    }
+
+    /**
+     * Reads the weights from a set of properties. Weights that are not set
+     * keep their defaults.
+     *
+     * @param properties The properties, using the keys documented in
+     * {@code priority.properties}.
+     * @return The weights.
+     * @throws IllegalArgumentException If a weight is not a whole number, or
+     * the age penalty is negative.
+     */
+    public static PriorityWeights fromProperties(Properties properties) {
+        PriorityWeights defaults = defaults();
+        Map<String, Integer> typeWeights = new LinkedHashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(TYPE_PREFIX)) {
+                typeWeights.put(key.substring(TYPE_PREFIX.length()), parse(properties, key, 0));
+            }
+        }
+        return new PriorityWeights(
+                parse(properties, "weight.severity", defaults.severityWeight),
+                parse(properties, "weight.agePerHour", defaults.agePenaltyPerHour),
+                parse(properties, "weight.pendingRequest", defaults.pendingRequestWeight),
+                typeWeights);
+    }
+
+    private static int parse(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    /**
+     * Gets the points per level of severity.
+     *
+     * @return The severity weight.
+     */
+    public int getSeverityWeight() {
+        return severityWeight;
+    }
+
+    /**
+     * Gets the points lost for every full hour since reporting.
+     *
+     * @return The age penalty per hour.
+     */
+    public int getAgePenaltyPerHour() {
+        return agePenaltyPerHour;
+    }
+
+    /**
+     * Gets the points per pending resource request.
+     *
+     * @return The pending request weight.
+     */
+    public int getPendingRequestWeight() {
+        return pendingRequestWeight;
+    }
+
+    /**
+     * Gets the points added for each disaster type.
+     *
+     * @return An unmodifiable map from disaster type to weight.
+     */
+    public Map<String, Integer> getTypeWeights() {
+        return typeWeights;
+    }
+
+    /**
+     * Gets the points added for a disaster type.
+     *
+     * @param type The disaster type.
+     * @return The weight of the type, or 0 if it has none.
+     */
+    public int getTypeWeight(String type) {
+        Integer weight = type != null ? typeWeights.get(type) : null;
+        return weight != null ? weight : 0;
+    }
+}
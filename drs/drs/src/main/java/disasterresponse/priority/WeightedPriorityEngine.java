@@ -0,0 +1,124 @@
+package disasterresponse.priority;
+
+import java.util.Map;
+
+/**
+ * The {@code WeightedPriorityEngine} class is the default
+ * {@link PriorityEngine}. A disaster's score is a weighted sum of its type,
+ * severity and pending requests, less a weighted penalty for every full hour
+ * since it was reported:
+ *
+ * <pre>
+ *     score = typeWeight + severity * severityWeight
+ *           + pendingRequests * pendingRequestWeight
+ *           - hoursSinceReporting * agePenaltyPerHour
+ * </pre>
+ *
+ * @see PriorityWeights
+ *
+ * @author 12236202
+ */
+public class WeightedPriorityEngine implements PriorityEngine {
+
+    private final PriorityWeights weights;
+    private final String sql;
+
+    /**
+     * Creates an engine with the weights from {@code priority.properties}.
+     */
+    public WeightedPriorityEngine() {
+        this(PriorityWeights.load());
+    }
+
+    /**
+     * Creates an engine with the given weights.
+     *
+     * @param weights The weights to score with.
+     */
+    public WeightedPriorityEngine(PriorityWeights weights) {
+        this.weights = weights;
+        this.sql = buildSql(weights);
+    }
+
+    /**
+     * Gets the weights this engine scores with.
+     *
+     * @return The weights.
+     */
+    public PriorityWeights getWeights() {
+        return weights;
+    }
+
+    @Override
+    public int baseScore(String type, int severity, int pendingRequests) {
+        return weights.getTypeWeight(type)
+                + severity * weights.getSeverityWeight()
+                + pendingRequests * weights.getPendingRequestWeight();
+    }
+
+    @Override
+    public int agePenaltyPerHour() {
+        return weights.getAgePenaltyPerHour();
+    }
+
+    @Override
+    public String toSql() {
+        return sql;
+    }
+
+    /**
+     * Scores a whole result set in one pass over the arrays. The weights are
+     * read once, and the type weight is only looked up when the type changes
+     * from the previous row.
+     */
+    @Override
+    public void scoreAll(String[] types, int[] severities, int[] pendingRequests, long[] reportedAtMillis,
+            long asOfMillis, int[] scores) {
+        int severityWeight = weights.getSeverityWeight();
+        int pendingRequestWeight = weights.getPendingRequestWeight();
+        int agePenalty = weights.getAgePenaltyPerHour();
+        boolean typed = !weights.getTypeWeights().isEmpty();
+
+        String lastType = null;
+        int typeWeight = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (typed && types[i] != lastType) {
+                lastType = types[i];
+                typeWeight = weights.getTypeWeight(lastType);
+            }
+            long hoursSince = (asOfMillis - reportedAtMillis[i]) / HOUR_MILLIS;
+            scores[i] = typeWeight
+                    + severities[i] * severityWeight
+                    + pendingRequests[i] * pendingRequestWeight
+                    - agePenalty * (int) hoursSince;
+        }
+    }
+
+    /**
+     * Builds the SQL form of the score. Terms with a weight of 0 are left
+     * out, so the default weights give
+     * {@code severity * 100 - 1 * TIMESTAMPDIFF(HOUR, reported_at, ?)}.
+     */
+    private static String buildSql(PriorityWeights weights) {
+        StringBuilder sql = new StringBuilder();
+
+        StringBuilder typeCase = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : weights.getTypeWeights().entrySet()) {
+            if (entry.getValue() != 0) {
+                typeCase.append(" WHEN '").append(entry.getKey().replace("'", "''"))
+                        .append("' THEN ").append(entry.getValue());
+            }
+        }
+        if (typeCase.length() > 0) {
+            sql.append("CASE type").append(typeCase).append(" ELSE 0 END + ");
+        }
+
+        sql.append("severity * ").append(weights.getSeverityWeight());
+        if (weights.getPendingRequestWeight() != 0) {
+            sql.append(" + pending_request_count * ").append(weights.getPendingRequestWeight());
+        }
+        // Always keep the parameter, so callers bind the ranking time the same way
+        sql.append(" - ").append(weights.getAgePenaltyPerHour()).append(" * TIMESTAMPDIFF(HOUR, reported_at, ?)");
+        return sql.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package disasterresponse.services;
+
+import disasterresponse.dao.DisasterDAO;
+
+/**
+ * The {@code ActivityCounterRepair} class recomputes the activity counters of
+ * every disaster, {@code message_count}, {@code pending_request_count} and
+ * {@code last_activity_at}, from the {@code disaster_messages} table.
+ *
+ * <p>
+ * The counters are kept up to date as messages are inserted and decided, so
+ * this job is only needed after the counters may have drifted, such as after
+ * messages were changed by hand. It walks the disasters in ID ranges, one
+ * short statement per range, so no single transaction locks the whole table.
+ * It is best run when few messages are being posted, since a message
+ * committed while its range is being recomputed can be missed until the next
+ * run.</p>
+ *
+ * <p>
+ * The job can be run on its own with
+ * {@code java -m disasterresponse/disasterresponse.services.ActivityCounterRepair}.</p>
+ *
+ * @see DisasterDAO#repairActivityCounters(int, int)
+ * @see disasterresponse.dao.DisasterMessageDAO
+ *
+ * @author 12236202
+ */
+public class ActivityCounterRepair implements Runnable {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final DisasterDAO disasterDAO;
+
+    private int repairedCount;
+
+    /**
+     * Constructs a new {@code ActivityCounterRepair}.
+     */
+    public ActivityCounterRepair() {
+        this.disasterDAO = new DisasterDAO();
+    }
+
+    /**
+     * Recomputes the counters of every disaster, a range of disasters at a
+     * time.
+     */
+    @Override
+    public void run() {
+        repairedCount = 0;
+        int maxId = disasterDAO.getMaxDisasterId();
+        for (int fromId = 0; fromId < maxId; fromId += BATCH_SIZE) {
+            repairedCount += disasterDAO.repairActivityCounters(fromId, Math.min(fromId + BATCH_SIZE, maxId));
+        }
+    }
+
+    /**
+     * Gets the number of disasters whose counters the last run corrected.
+     *
+     * @return The number of corrected disasters.
+     */
+    public int getRepairedCount() {
+        return repairedCount;
+    }
+
+    /**
+     * Runs the repair job once and reports how many disasters it corrected.
+     *
+     * @param args Command-line arguments, not used.
+     */
+    public static void main(String[] args) {
+        ActivityCounterRepair repair = new ActivityCounterRepair();
+        try {
+            repair.run();
+            System.out.println("Activity counters corrected for " + repair.getRepairedCount() + " disasters.");
+        } finally {
+            DatabaseUtil.shutdown();
+        }
+    }
+}
@@ -0,0 +1,721 @@
+package disasterresponse.services;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@code ConnectionPool} class keeps a bounded set of open MySQL
+ * connections so that DAO calls can reuse warm connections instead of paying a
+ * TCP and authentication handshake on every query.
+ *
+ * <p>
+ * Borrowed connections are handed out as proxies; calling {@code close()} on
+ * the proxy returns the physical connection to the pool. Connections that have
+ * been idle for a while are validated before they are handed out, idle
+ * connections are evicted after {@code idleTimeoutMillis}, and connections held
+ * for longer than {@code leakThresholdMillis} are reported as possible
+ * leaks. Where a leaked connection was borrowed is only recorded when the
+ * {@value #TRACE_BORROWS_PROPERTY} system property is {@code true}, as
+ * capturing a stack trace on every borrow is costly.</p>
+ *
+ * <p>
+ * Each pooled connection also keeps a small LRU cache of prepared statements
+ * keyed by their SQL text. Closing a cached statement only resets it, so the
+ * next DAO call with the same SQL on that connection reuses the statement that
+ * the server has already parsed.</p>
+ *
+ * <p>
+ * The pool also records how long callers waited for a connection and how often
+ * the statement cache was hit, so that pool sizing can be checked against real
+ * load.</p>
+ *
+ * @see DatabaseUtil
+ *
+ * @author 12236202
+ */
+public class ConnectionPool {
+
+    /**
+     * The system property that turns on recording where each connection was
+     * borrowed, for leak reports.
+     */
+    public static final String TRACE_BORROWS_PROPERTY = "disasterresponse.pool.traceBorrows";
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long VALIDATION_INTERVAL_MILLIS = 500;
+    private static final long HOUSEKEEPING_INTERVAL_MILLIS = 30_000;
+
+    private final Connector connector;
+    private final int maxSize;
+    private final long borrowTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private final long leakThresholdNanos;
+    private final int statementCacheSize;
+    private final boolean traceBorrows;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition connectionReturned = lock.newCondition();
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+    private final Set<PooledEntry> active = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private int totalCount;
+    private boolean shutdown;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    /**
+     * Constructs a new {@code ConnectionPool}. No connections are opened until
+     * the first borrow.
+     *
+     * @param url The JDBC URL of the database.
+     * @param username The database username.
+     * @param password The database password.
+     * @param maxSize The maximum number of open connections.
+     * @param borrowTimeoutMillis How long a caller waits for a free connection
+     * before giving up.
+     * @param idleTimeoutMillis How long a connection may sit idle before it is
+     * closed.
+     * @param leakThresholdMillis How long a connection may be held before it
+     * is reported as a possible leak, or {@code 0} to disable leak reports.
+     * @param statementCacheSize The number of prepared statements cached per
+     * connection, or {@code 0} to disable statement caching.
+     */
+    public ConnectionPool(String url, String username, String password, int maxSize,
+            long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis, int statementCacheSize) {
+        this(() -> DriverManager.getConnection(url, username, password), maxSize,
+                borrowTimeoutMillis, idleTimeoutMillis, leakThresholdMillis, statementCacheSize);
+    }
+
+    /**
+     * Constructs a new {@code ConnectionPool} that opens its connections with
+     * the given connector.
+     *
+     * @param connector Opens a new physical connection.
+     * @param maxSize The maximum number of open connections.
+     * @param borrowTimeoutMillis How long a caller waits for a free connection
+     * before giving up.
+     * @param idleTimeoutMillis How long a connection may sit idle before it is
+     * closed.
+     * @param leakThresholdMillis How long a connection may be held before it
+     * is reported as a possible leak, or {@code 0} to disable leak reports.
+     * @param statementCacheSize The number of prepared statements cached per
+     * connection, or {@code 0} to disable statement caching.
+     */
+    ConnectionPool(Connector connector, int maxSize,
+            long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis, int statementCacheSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.connector = connector;
+        this.maxSize = maxSize;
+        this.borrowTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(leakThresholdMillis);
+        this.statementCacheSize = statementCacheSize;
+        this.traceBorrows = leakThresholdMillis > 0 && Boolean.getBoolean(TRACE_BORROWS_PROPERTY);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_INTERVAL_MILLIS, HOUSEKEEPING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if the pool is
+     * below its maximum size. The returned connection must be closed to give
+     * it back to the pool.
+     *
+     * @return A pooled {@code Connection}.
+     * @throws SQLException If a new connection cannot be opened, or no
+     * connection becomes free within the borrow timeout.
+     */
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+
+        while (true) {
+            PooledEntry entry = takeIdleOrReserve(start + borrowTimeoutNanos);
+
+            if (entry == null) {
+                try {
+                    entry = new PooledEntry(connector.connect());
+                } catch (SQLException e) {
+                    releaseReservation();
+                    throw e;
+                }
+            } else if (!isUsable(entry)) {
+                discard(entry);
+                continue;
+            }
+
+            recordWait(System.nanoTime() - start);
+            entry.checkOut();
+            active.add(entry);
+            return entry.newProxy();
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops the housekeeping thread.
+     * Connections that are still borrowed are closed when they are returned.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            while (!idle.isEmpty()) {
+                closeQuietly(idle.pollFirst());
+                totalCount--;
+            }
+            connectionReturned.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+    }
+
+    /**
+     * Takes an idle connection, or reserves a slot for a new connection if the
+     * pool has room, waiting until the deadline otherwise.
+     *
+     * @return An idle entry, or {@code null} if the caller should open a new
+     * connection.
+     */
+    private PooledEntry takeIdleOrReserve(long deadline) throws SQLException {
+        lock.lock();
+        try {
+            while (true) {
+                if (shutdown) {
+                    throw new SQLException("Connection pool has been shut down");
+                }
+                PooledEntry entry = idle.pollFirst();
+                if (entry != null) {
+                    return entry;
+                }
+                if (totalCount < maxSize) {
+                    totalCount++;
+                    return null;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    timeoutCount.incrementAndGet();
+                    throw new SQLTransientConnectionException("Timed out after "
+                            + TimeUnit.NANOSECONDS.toMillis(borrowTimeoutNanos)
+                            + " ms waiting for a database connection (pool size " + maxSize + ")");
+                }
+                try {
+                    connectionReturned.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a database connection", e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseReservation() {
+        lock.lock();
+        try {
+            totalCount--;
+            connectionReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Validates a connection taken from the idle list. Connections used very
+     * recently are trusted without a round trip to the server.
+     */
+    private boolean isUsable(PooledEntry entry) {
+        try {
+            if (entry.physical.isClosed()) {
+                return false;
+            }
+            if (System.nanoTime() - entry.lastUsedAt < TimeUnit.MILLISECONDS.toNanos(VALIDATION_INTERVAL_MILLIS)) {
+                return true;
+            }
+            return entry.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a connection to the idle list once its proxy has been closed.
+     * Connections left in a transaction are rolled back first; broken
+     * connections are discarded.
+     */
+    private void release(PooledEntry entry) {
+        active.remove(entry);
+        entry.resetStatements();
+
+        boolean reusable;
+        try {
+            reusable = !entry.physical.isClosed();
+            if (reusable && !entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+
+        lock.lock();
+        try {
+            if (!reusable || shutdown) {
+                closeQuietly(entry);
+                totalCount--;
+            } else {
+                entry.lastUsedAt = System.nanoTime();
+                idle.addFirst(entry);
+            }
+            connectionReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discard(PooledEntry entry) {
+        closeQuietly(entry);
+        lock.lock();
+        try {
+            totalCount--;
+            connectionReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts connections that have been idle for too long and reports
+     * connections that have been borrowed for longer than the leak threshold.
+     * Runs on the housekeeping thread.
+     */
+    final void housekeep() {
+        long now = System.nanoTime();
+
+        lock.lock();
+        try {
+            Iterator<PooledEntry> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                PooledEntry entry = iterator.next();
+                if (now - entry.lastUsedAt > idleTimeoutNanos) {
+                    iterator.remove();
+                    closeQuietly(entry);
+                    totalCount--;
+                    evictedCount.incrementAndGet();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (leakThresholdNanos <= 0) {
+            return;
+        }
+        for (PooledEntry entry : active) {
+            if (!entry.leakReported && now - entry.borrowedAt > leakThresholdNanos) {
+                entry.leakReported = true;
+                leakCount.incrementAndGet();
+                System.err.println("Possible connection leak: connection held for "
+                        + TimeUnit.NANOSECONDS.toMillis(now - entry.borrowedAt) + " ms");
+                Throwable borrowTrace = entry.borrowTrace;
+                if (borrowTrace != null) {
+                    borrowTrace.printStackTrace();
+                } else {
+                    System.err.println("Set -D" + TRACE_BORROWS_PROPERTY + "=true to see where it was borrowed");
+                }
+            }
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private static void closeQuietly(PooledEntry entry) {
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Gets the number of connections currently borrowed.
+     *
+     * @return The number of borrowed connections.
+     */
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    /**
+     * Gets the number of open connections waiting in the pool.
+     *
+     * @return The number of idle connections.
+     */
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the total number of borrows served by the pool.
+     *
+     * @return The number of successful borrows.
+     */
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    /**
+     * Gets the number of borrows that gave up waiting for a connection.
+     *
+     * @return The number of borrow timeouts.
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    /**
+     * Gets the number of connections reported as possible leaks.
+     *
+     * @return The number of leak reports.
+     */
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    /**
+     * Gets the number of idle connections closed by idle eviction.
+     *
+     * @return The number of evicted connections.
+     */
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    /**
+     * Gets the average time callers waited to borrow a connection, including
+     * the time spent opening new connections.
+     *
+     * @return The average wait time in milliseconds.
+     */
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.get();
+        return borrows == 0 ? 0 : totalWaitNanos.get() / (borrows * 1_000_000.0);
+    }
+
+    /**
+     * Gets the longest time a caller waited to borrow a connection.
+     *
+     * @return The maximum wait time in milliseconds.
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Gets the number of prepared statements served from a connection's
+     * statement cache.
+     *
+     * @return The number of statement cache hits.
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    /**
+     * Gets the number of prepared statements that had to be prepared on the
+     * server because they were not in the statement cache.
+     *
+     * @return The number of statement cache misses.
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    /**
+     * A physical connection owned by the pool, together with the bookkeeping
+     * needed for validation, eviction, leak detection and statement caching.
+     */
+    private final class PooledEntry {
+
+        private final Connection physical;
+        private final Map<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+        private Connection currentProxy;
+        private volatile long lastUsedAt = System.nanoTime();
+        private volatile long borrowedAt;
+        private volatile boolean leakReported;
+        private volatile Throwable borrowTrace;
+
+        private PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+
+        private void checkOut() {
+            borrowedAt = System.nanoTime();
+            leakReported = false;
+            borrowTrace = traceBorrows ? new Throwable("Connection borrowed here") : null;
+        }
+
+        private Connection newProxy() {
+            currentProxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new ConnectionHandler(this));
+            return currentProxy;
+        }
+
+        /**
+         * Prepares a statement through the statement cache. If the same SQL
+         * is already open on this connection, an uncached statement is
+         * returned so that the two callers do not share parameters.
+         */
+        private PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+            String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "KEYS|" + sql : sql;
+            CachedStatement cached = statements.get(key);
+
+            if (cached != null && !cached.inUse) {
+                statementCacheHits.incrementAndGet();
+                cached.inUse = true;
+                return cached.proxy;
+            }
+
+            statementCacheMisses.incrementAndGet();
+            PreparedStatement physicalStatement = physical.prepareStatement(sql, autoGeneratedKeys);
+            if (cached != null) {
+                return physicalStatement;
+            }
+
+            cached = new CachedStatement(this, physicalStatement);
+            cached.inUse = true;
+            statements.put(key, cached);
+            evictStatements();
+            return cached.proxy;
+        }
+
+        private void evictStatements() {
+            Iterator<CachedStatement> iterator = statements.values().iterator();
+            while (statements.size() > statementCacheSize && iterator.hasNext()) {
+                CachedStatement eldest = iterator.next();
+                if (!eldest.inUse) {
+                    iterator.remove();
+                    try {
+                        eldest.physical.close();
+                    } catch (SQLException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+
+        private void resetStatements() {
+            for (CachedStatement cached : statements.values()) {
+                if (cached.inUse) {
+                    cached.reset();
+                }
+            }
+        }
+    }
+
+    /**
+     * A prepared statement kept open in a connection's statement cache. The
+     * proxy handed to callers resets the statement on {@code close()} instead
+     * of closing it.
+     */
+    private static final class CachedStatement implements InvocationHandler {
+
+        private final PooledEntry owner;
+        private final PreparedStatement physical;
+        private final PreparedStatement proxy;
+        private ResultSet openResultSet;
+        private boolean inUse;
+
+        private CachedStatement(PooledEntry owner, PreparedStatement physical) {
+            this.owner = owner;
+            this.physical = physical;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (inUse) {
+                        reset();
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return !inUse || physical.isClosed();
+                }
+                case "getConnection" -> {
+                    return owner.currentProxy;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Cached" + physical;
+                }
+                default -> {
+                    if (!inUse) {
+                        throw new SQLException("Statement has already been closed");
+                    }
+                    try {
+                        Object result = method.invoke(physical, args);
+                        if (result instanceof ResultSet resultSet) {
+                            openResultSet = resultSet;
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+
+        private void reset() {
+            inUse = false;
+            try {
+                if (openResultSet != null) {
+                    openResultSet.close();
+                    openResultSet = null;
+                }
+                physical.clearParameters();
+                physical.clearBatch();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Forwards calls to the physical connection until the proxy is closed, at
+     * which point the connection goes back to the pool.
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final PooledEntry entry;
+        private boolean closed;
+
+        private ConnectionHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        release(entry);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || entry.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled" + entry.physical;
+                }
+                case "prepareStatement" -> {
+                    if (!closed && statementCacheSize > 0 && isCacheable(args)) {
+                        int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                        return entry.prepare((String) args[0], autoGeneratedKeys);
+                    }
+                    return forward(method, args);
+                }
+                default -> {
+                    return forward(method, args);
+                }
+            }
+        }
+
+        private Object forward(Method method, Object[] args) throws Throwable {
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Only {@code prepareStatement(String)} and
+         * {@code prepareStatement(String, int autoGeneratedKeys)} go through
+         * the statement cache.
+         */
+        private boolean isCacheable(Object[] args) {
+            return args.length == 1 || (args.length == 2 && args[1] instanceof Integer);
+        }
+    }
+
+    /**
+     * Opens the physical connections the pool hands out.
+     */
+    @FunctionalInterface
+    interface Connector {
+
+        /**
+         * Opens a new connection to the database.
+         *
+         * @return The new connection.
+         * @throws SQLException If the connection cannot be opened.
+         */
+        Connection connect() throws SQLException;
+    }
+}
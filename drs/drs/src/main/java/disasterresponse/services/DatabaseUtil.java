@@ -1,7 +1,6 @@
 package disasterresponse.services;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
@@ -11,8 +10,11 @@ import java.sql.SQLException;
  *
  * <p>
  * This class is used throughout the application to manage database
- * connections.</p>
+ * connections. Connections are served from a shared {@link ConnectionPool}, so
+ * closing a connection returns it to the pool rather than ending the
+ * session with the server.</p>
  *
+ * @see ConnectionPool
  * @see disasterresponse.dao.UserDAO
  * @see disasterresponse.dao.DisasterDAO
  * @see disasterresponse.dao.DisasterMessageDAO
@@ -21,23 +23,58 @@ import java.sql.SQLException;
  */
 public class DatabaseUtil {
 
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/disaster_response";
+    /**
+     * How far before the latest {@code updated_at} or {@code messageTime} seen
+     * a read of recent changes starts, in seconds. Both are stamped when the
+     * writing statement starts, and the statement can then wait up to the
+     * InnoDB lock wait timeout of 50 seconds before it commits, so a row can
+     * become visible well after rows stamped later. Re-reading this far back
+     * picks such rows up; readers skip or merge the rows they already have.
+     */
+    public static final long CHANGE_OVERLAP_SECONDS = 120;
+
+    private static final String DB_URL = "jdbc:mysql://localhost:3306/disaster_response?useServerPrepStmts=true&rewriteBatchedStatements=true";
     private static final String DB_USERNAME = "root";
     private static final String DB_PASSWORD = "123456";
 
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long POOL_BORROW_TIMEOUT_MILLIS = 10_000;
+    private static final long POOL_IDLE_TIMEOUT_MILLIS = 300_000;
+    private static final long POOL_LEAK_THRESHOLD_MILLIS = 60_000;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private static final ConnectionPool POOL = new ConnectionPool(DB_URL, DB_USERNAME, DB_PASSWORD,
+            POOL_MAX_SIZE, POOL_BORROW_TIMEOUT_MILLIS, POOL_IDLE_TIMEOUT_MILLIS, POOL_LEAK_THRESHOLD_MILLIS,
+            STATEMENT_CACHE_SIZE);
+
     /**
-     * Obtains a connection to the database using the provided URL, username,
-     * and password.
+     * Obtains a connection to the database from the connection pool.
      *
      * <p>
-     * This method establishes a connection to the MySQL database and returns
-     * the {@code Connection} object.</p>
+     * The returned connection must be closed once the caller is done with it,
+     * which hands it back to the pool for the next caller.</p>
      *
      * @return A {@code Connection} object for interacting with the database.
-     * @throws SQLException If a database access error occurs or the URL is
-     * null.
+     * @throws SQLException If a database access error occurs or no connection
+     * becomes available in time.
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USERNAME, DB_PASSWORD);
+        return POOL.borrow();
+    }
+
+    /**
+     * Gets the shared connection pool, for example to read its metrics.
+     *
+     * @return The {@code ConnectionPool} used by {@link #getConnection()}.
+     */
+    public static ConnectionPool getPool() {
+        return POOL;
+    }
+
+    /**
+     * Closes all pooled connections. Called when the application exits.
+     */
+    public static void shutdown() {
+        POOL.shutdown();
     }
 }
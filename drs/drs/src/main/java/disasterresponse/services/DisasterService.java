@@ -3,8 +3,18 @@ package disasterresponse.services;
 import disasterresponse.dao.DisasterDAO;
 import disasterresponse.dao.DisasterMessageDAO;
 import disasterresponse.models.Disaster;
+import disasterresponse.models.DisasterCursor;
 import disasterresponse.models.DisasterMessage;
+import disasterresponse.models.MessageType;
+import disasterresponse.models.PendingRequest;
+import disasterresponse.models.PriorityCursor;
+import disasterresponse.models.User;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * The {@code DisasterService} class provides methods for managing disaster
@@ -14,7 +24,14 @@ import java.util.List;
  *
  * <p>
  * This service layer helps in separating business logic from data access
- * logic.</p>
+ * logic. Read methods also have {@code Async} variants that run on
+ * {@link ServiceExecutor} so that controllers do not block the JavaFX
+ * Application Thread. Identical reads of disasters by status that run at the
+ * same time share one query through {@link SingleFlight}; reads that start
+ * after a write made through this service do not share a query started before
+ * it. Message timelines are cached in the
+ * {@link TimelineCache}, and messages written through this service are written
+ * through to it.</p>
  *
  * @see disasterresponse.dao.DisasterDAO
  * @see disasterresponse.dao.DisasterMessageDAO
@@ -25,6 +42,14 @@ import java.util.List;
  */
 public class DisasterService {
 
+    /*
+     * Shared by every DisasterService instance, since each controller creates
+     * its own service.
+     */
+    private static final SingleFlight<String, List<Disaster>> DISASTERS_BY_STATUS = new SingleFlight<>(DisasterService::copyDisasters);
+
+    private static final int TIMELINE_PAGE_SIZE = 50;
+
     private final DisasterDAO disasterDAO;
     private final DisasterMessageDAO disasterMessageDAO;
 
@@ -57,6 +82,13 @@ public class DisasterService {
         disaster.setReportedBy(reportedBy);
 
         disasterDAO.insertDisaster(disaster);
+        DISASTERS_BY_STATUS.invalidate();
+
+        // The insert does not return the new row; read it back with the
+        // other recent changes
+        if (PriorityIndex.getInstance().isLoaded()) {
+            refreshPriorityIndex();
+        }
     }
 
     /**
@@ -68,40 +100,114 @@ public class DisasterService {
         return disasterDAO.getAllDisasters();
     }
 
+    /**
+     * Retrieves a list of all disasters in the background.
+     *
+     * @return A future completed with the list of {@code Disaster} objects.
+     */
+    public CompletableFuture<List<Disaster>> getAllDisastersAsync() {
+        return ServiceExecutor.supplyAsync(this::getAllDisasters);
+    }
+
     /**
      * Updates the status of a disaster and inserts a new message related to
-     * that status update.
+     * that status update. Both writes are made in one transaction, so the
+     * status never changes without its message.
      *
      * @param id The ID of the disaster.
      * @param status The new status of the disaster.
      * @param message The message associated with the status update.
      */
     public void updateDisasterStatus(int id, String status, String message) {
-        disasterDAO.updateDisasterStatus(id, status);
-
         DisasterMessage disasterMessage = new DisasterMessage();
         disasterMessage.setDisasterId(id);
         disasterMessage.setDepartmentId(SessionDetails.getInstance().getLoggedInUser().getDepartmentId());
         disasterMessage.setMessage(message);
         disasterMessage.setMessagedBy(SessionDetails.getInstance().getLoggedInUser().getUserId());
 
-        disasterMessageDAO.insertDisasterMessage(disasterMessage);
+        try {
+            UnitOfWork.run(connection -> {
+                disasterDAO.updateDisasterStatus(connection, id, status);
+                disasterMessageDAO.insertDisasterMessages(connection, List.of(disasterMessage));
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return;
+        }
+        PriorityIndex.getInstance().updateStatus(id, status);
+        writeThrough(disasterMessage);
     }
 
     /**
-     * Adds a new message related to a disaster.
+     * Adds a new message related to a disaster. The insert goes through the
+     * {@link MessageWriteCoalescer}, so messages posted at the same time by
+     * different responders are committed together. This method returns once
+     * the message has been committed.
      *
      * @param id The ID of the disaster.
      * @param message The message to be added.
      */
     public void addMessage(int id, String message) {
+        addMessage(id, MessageType.UPDATE, message);
+    }
+
+    /**
+     * Adds a new message of the given type related to a disaster, such as a
+     * resource request. The text is stored with the type's display prefix in
+     * front of it.
+     *
+     * @param id The ID of the disaster.
+     * @param messageType The type of the message.
+     * @param message The text entered by the user.
+     * @see #addMessage(int, String)
+     */
+    public void addMessage(int id, MessageType messageType, String message) {
         DisasterMessage disasterMessage = new DisasterMessage();
         disasterMessage.setDisasterId(id);
         disasterMessage.setDepartmentId(SessionDetails.getInstance().getLoggedInUser().getDepartmentId());
-        disasterMessage.setMessage(message);
+        disasterMessage.setMessage(messageType.format(message));
+        disasterMessage.setMessageType(messageType);
         disasterMessage.setMessagedBy(SessionDetails.getInstance().getLoggedInUser().getUserId());
 
-        disasterMessageDAO.insertDisasterMessage(disasterMessage);
+        try {
+            disasterMessage.setId(MessageWriteCoalescer.getInstance().submit(disasterMessage).join());
+        } catch (CompletionException e) {
+            e.getCause().printStackTrace();
+            return;
+        }
+        writeThrough(disasterMessage);
+    }
+
+    /**
+     * Adds several messages at once, for example updates a responder queued
+     * while offline. Messages without a department or sender are stamped with
+     * those of the logged-in user, and every message is stored with the time
+     * it is written. All messages are written in one transaction and one
+     * batch, so either every message is added or none is.
+     *
+     * @param disasterMessages The messages to be added. Each must have its
+     * disaster ID and message set. On return, each has its generated ID.
+     */
+    public void addMessages(List<DisasterMessage> disasterMessages) {
+        User loggedInUser = SessionDetails.getInstance().getLoggedInUser();
+        for (DisasterMessage disasterMessage : disasterMessages) {
+            if (disasterMessage.getDepartmentId() == 0) {
+                disasterMessage.setDepartmentId(loggedInUser.getDepartmentId());
+            }
+            if (disasterMessage.getMessagedBy() == 0) {
+                disasterMessage.setMessagedBy(loggedInUser.getUserId());
+            }
+        }
+
+        try {
+            UnitOfWork.run(connection -> disasterMessageDAO.insertDisasterMessages(connection, disasterMessages));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return;
+        }
+        for (DisasterMessage disasterMessage : disasterMessages) {
+            writeThrough(disasterMessage);
+        }
     }
 
     /**
@@ -111,49 +217,467 @@ public class DisasterService {
      * @return A list of {@code Disaster} objects.
      */
     public List<Disaster> getDisastersByStatus(String status) {
-        return disasterDAO.getDisastersByStatus(status);
+        return DISASTERS_BY_STATUS.execute(status, () -> disasterDAO.getDisastersByStatus(status));
+    }
+
+    private static List<Disaster> copyDisasters(List<Disaster> disasters) {
+        List<Disaster> copies = new ArrayList<>(disasters.size());
+        for (Disaster disaster : disasters) {
+            copies.add(disaster.copy());
+        }
+        return copies;
+    }
+
+    /**
+     * Retrieves a list of disasters filtered by status in the background.
+     *
+     * @param status The status to filter by.
+     * @return A future completed with the list of {@code Disaster} objects.
+     */
+    public CompletableFuture<List<Disaster>> getDisastersByStatusAsync(String status) {
+        return ServiceExecutor.supplyAsync(() -> getDisastersByStatus(status));
     }
 
     /**
-     * Retrieves a list of messages related to a specific disaster.
+     * Retrieves one page of disasters, newest first.
+     *
+     * @param status The status to filter by, or "ALL".
+     * @param after The position after which the page starts, or {@code null}
+     * for the first page.
+     * @param pageSize The maximum number of disasters to return.
+     * @return A list of at most {@code pageSize} {@code Disaster} objects.
+     */
+    public List<Disaster> getDisastersPage(String status, DisasterCursor after, int pageSize) {
+        return disasterDAO.getDisastersPage(status, after, pageSize);
+    }
+
+    /**
+     * Retrieves one page of disasters, newest first, in the background.
+     *
+     * @param status The status to filter by, or "ALL".
+     * @param after The position after which the page starts, or {@code null}
+     * for the first page.
+     * @param pageSize The maximum number of disasters to return.
+     * @return A future completed with the page of {@code Disaster} objects.
+     */
+    public CompletableFuture<List<Disaster>> getDisastersPageAsync(String status, DisasterCursor after, int pageSize) {
+        return ServiceExecutor.supplyAsync(() -> getDisastersPage(status, after, pageSize));
+    }
+
+    /**
+     * Retrieves one page of disasters ordered by status (Open, In Progress,
+     * Closed), then by priority, highest first.
+     *
+     * <p>
+     * The first page starts with the open disasters, so it is taken from the
+     * in-memory {@link PriorityIndex} when there are enough open disasters to
+     * fill it. The database then only reads the disasters changed since the
+     * index was last refreshed, instead of ranking the whole table.</p>
+     *
+     * @param status The status to filter by, or "ALL".
+     * @param after The position after which the page starts.
+     * @param pageSize The maximum number of disasters to return.
+     * @return A list of at most {@code pageSize} {@code Disaster} objects.
+     */
+    public List<Disaster> getDisastersByPriority(String status, PriorityCursor after, int pageSize) {
+        if (after.isFirst() && ("ALL".equals(status) || "Open".equals(status))) {
+            List<Disaster> topOpen = getTopOpenDisasters(pageSize, after.getAsOf());
+            // Fewer open disasters than a page: the rest come from the database
+            if (topOpen.size() == pageSize || "Open".equals(status)) {
+                return topOpen;
+            }
+        }
+        return disasterDAO.getDisastersByPriority(status, after, pageSize);
+    }
+
+    /**
+     * Retrieves one page of disasters in priority order in the background.
+     *
+     * @param status The status to filter by, or "ALL".
+     * @param after The position after which the page starts.
+     * @param pageSize The maximum number of disasters to return.
+     * @return A future completed with the page of {@code Disaster} objects.
+     */
+    public CompletableFuture<List<Disaster>> getDisastersByPriorityAsync(String status, PriorityCursor after, int pageSize) {
+        return ServiceExecutor.supplyAsync(() -> getDisastersByPriority(status, after, pageSize));
+    }
+
+    /**
+     * Retrieves the open disasters with the highest priority. The disasters
+     * are taken from the in-memory {@link PriorityIndex}, which is loaded on
+     * first use and afterwards only reads the disasters changed since.
+     *
+     * @param limit The maximum number of disasters to return.
+     * @param asOf The time to rank the disasters at.
+     * @return A list of at most {@code limit} open {@code Disaster} objects,
+     * highest priority first, and newest first among equal priorities.
+     */
+    public List<Disaster> getTopOpenDisasters(int limit, LocalDateTime asOf) {
+        refreshPriorityIndex();
+        return PriorityIndex.getInstance().top(limit, asOf, "Open");
+    }
+
+    /**
+     * Brings the priority index up to date: loads every disaster that is not
+     * closed the first time, and afterwards applies the disasters changed
+     * since the index was last refreshed.
+     */
+    private void refreshPriorityIndex() {
+        PriorityIndex index = PriorityIndex.getInstance();
+        LocalDateTime refreshFrom = index.getRefreshFrom();
+        if (!index.isLoaded() || refreshFrom == null) {
+            List<Disaster> active = new ArrayList<>(disasterDAO.getDisastersByStatus("Open"));
+            active.addAll(disasterDAO.getDisastersByStatus("In Progress"));
+            index.load(active);
+        } else {
+            index.applyAll(disasterDAO.getDisastersChangedSince(refreshFrom));
+        }
+    }
+
+    /**
+     * Retrieves the disasters changed at or after the given time, of any
+     * status.
+     *
+     * @param since The earliest change time to include.
+     * @return A list of the changed {@code Disaster} objects.
+     */
+    public List<Disaster> getDisastersChangedSince(LocalDateTime since) {
+        List<Disaster> changes = disasterDAO.getDisastersChangedSince(since);
+        // Changes read for a listing keep the priority index current too
+        if (PriorityIndex.getInstance().isLoaded()) {
+            PriorityIndex.getInstance().applyAll(changes);
+        }
+        return changes;
+    }
+
+    /**
+     * Retrieves the disasters changed at or after the given time in the
+     * background.
+     *
+     * @param since The earliest change time to include.
+     * @return A future completed with the list of changed {@code Disaster}
+     * objects.
+     */
+    public CompletableFuture<List<Disaster>> getDisastersChangedSinceAsync(LocalDateTime since) {
+        return ServiceExecutor.supplyAsync(() -> getDisastersChangedSince(since));
+    }
+
+    /**
+     * Gets the cached message timeline of a disaster, or a new empty one if it
+     * is not cached. Sync it with {@link #syncTimeline(MessageTimeline)} to
+     * fetch the messages posted since it was last synced.
      *
      * @param disasterId The ID of the disaster.
-     * @return A list of {@code DisasterMessage} objects.
+     * @return The timeline of the disaster.
      */
-    public List<DisasterMessage> getDisasterMessages(int disasterId) {
-        return disasterMessageDAO.getDisasterMessages(disasterId);
+    public MessageTimeline getTimeline(int disasterId) {
+        return TimelineCache.getInstance().getTimeline(disasterId);
     }
 
     /**
-     * Retrieves a list of messages related to a disaster filtered by a prefix.
+     * Fetches the messages posted to a disaster since the timeline was last
+     * synced and adds them to it. The first sync of a timeline loads its
+     * latest page; older messages are loaded with
+     * {@link #loadOlderMessages(MessageTimeline, int)}. If the sync fetches a
+     * decision made by another user, the approval status of the requests the
+     * timeline holds is read again.
+     *
+     * @param timeline The timeline to bring up to date.
+     * @return The messages that were new to the timeline, newest first.
+     */
+    public List<DisasterMessage> syncTimeline(MessageTimeline timeline) {
+        if (!timeline.isStarted()) {
+            return loadOlderMessages(timeline, TIMELINE_PAGE_SIZE);
+        }
+        List<DisasterMessage> fetched = disasterMessageDAO.getDisasterMessagesFrom(timeline.getDisasterId(), timeline.getSyncFrom());
+        List<DisasterMessage> added = timeline.merge(fetched);
+        // Decisions made here were written through; new ones are another
+        // user's, and the requests they decided are not fetched again
+        if (containsDecision(added)) {
+            timeline.setApprovalStatuses(disasterMessageDAO.getApprovalStatuses(timeline.getDisasterId(), MessageType.REQUEST));
+        }
+
+        // The timeline has grown, so older timelines may no longer fit
+        TimelineCache.getInstance().trim(timeline.getDisasterId());
+        return added;
+    }
+
+    private static boolean containsDecision(List<DisasterMessage> disasterMessages) {
+        for (DisasterMessage disasterMessage : disasterMessages) {
+            if (disasterMessage.getMessageType() == MessageType.APPROVE || disasterMessage.getMessageType() == MessageType.REJECT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads the next page of older messages into a timeline. The first page
+     * of a new timeline is its latest messages.
+     *
+     * @param timeline The timeline to extend.
+     * @param pageSize The maximum number of messages to load.
+     * @return The messages that were new to the timeline, newest first.
+     */
+    public List<DisasterMessage> loadOlderMessages(MessageTimeline timeline, int pageSize) {
+        if (timeline.isFullyLoaded()) {
+            return List.of();
+        }
+        List<DisasterMessage> page = disasterMessageDAO.getDisasterMessagesPage(timeline.getDisasterId(), timeline.getOlderCursor(), pageSize);
+        List<DisasterMessage> added = timeline.mergePage(page, pageSize);
+
+        TimelineCache.getInstance().trim(timeline.getDisasterId());
+        return added;
+    }
+
+    /**
+     * Loads the next page of older messages into a timeline in the background.
+     *
+     * @param timeline The timeline to extend.
+     * @param pageSize The maximum number of messages to load.
+     * @return A future completed with the messages that were new to the
+     * timeline, newest first.
+     */
+    public CompletableFuture<List<DisasterMessage>> loadOlderMessagesAsync(MessageTimeline timeline, int pageSize) {
+        return ServiceExecutor.supplyAsync(() -> loadOlderMessages(timeline, pageSize));
+    }
+
+    /**
+     * Syncs a message timeline in the background.
+     *
+     * @param timeline The timeline to bring up to date.
+     * @return A future completed with the messages that were new to the
+     * timeline, newest first.
+     */
+    public CompletableFuture<List<DisasterMessage>> syncTimelineAsync(MessageTimeline timeline) {
+        return ServiceExecutor.supplyAsync(() -> syncTimeline(timeline));
+    }
+
+    /**
+     * Retrieves the resource requests of a disaster that are still waiting for
+     * a decision.
+     *
+     * @param disasterId The ID of the disaster.
+     * @return A list of the pending request messages.
+     */
+    public List<DisasterMessage> getPendingRequests(int disasterId) {
+        return disasterMessageDAO.getPendingMessagesByType(disasterId, MessageType.REQUEST);
+    }
+
+    /**
+     * Retrieves the pending resource requests of a disaster in the
+     * background.
      *
      * @param disasterId The ID of the disaster.
-     * @param prefix The prefix to filter messages by.
-     * @return A list of {@code DisasterMessage} objects.
+     * @return A future completed with the list of pending request messages.
+     */
+    public CompletableFuture<List<DisasterMessage>> getPendingRequestsAsync(int disasterId) {
+        return ServiceExecutor.supplyAsync(() -> getPendingRequests(disasterId));
+    }
+
+    /**
+     * Retrieves the pending resource requests of every open and in-progress
+     * disaster in one query, for the pending-request inbox. Requests are
+     * ordered by their disaster's current priority, then oldest first.
+     *
+     * @return A list of {@code PendingRequest} objects in inbox order.
+     */
+    public List<PendingRequest> getPendingRequestInbox() {
+        return disasterMessageDAO.getPendingRequestInbox(LocalDateTime.now());
+    }
+
+    /**
+     * Retrieves the pending-request inbox in the background.
+     *
+     * @return A future completed with the list of {@code PendingRequest}
+     * objects in inbox order.
      */
-    public List<DisasterMessage> getRequestMessagesByDisasterId(int disasterId, String prefix) {
-        return disasterMessageDAO.getMessagesByPrefix(disasterId, prefix);
+    public CompletableFuture<List<PendingRequest>> getPendingRequestInboxAsync() {
+        return ServiceExecutor.supplyAsync(this::getPendingRequestInbox);
+    }
+
+    /**
+     * Approves or rejects several requests from the pending-request inbox in
+     * one transaction.
+     *
+     * @param requests The pending requests.
+     * @param approvalStatus The new approval status: 1 to approve, 0 to
+     * reject.
+     * @return The number of requests this call decided; requests another
+     * administrator decided first are not counted.
+     * @throws SQLException If the transaction fails. No request is decided.
+     * @see #updateDisasterMessageStatuses(List, int)
+     */
+    public int decidePendingRequests(List<PendingRequest> requests, int approvalStatus) throws SQLException {
+        List<DisasterMessage> disasterMessages = new ArrayList<>(requests.size());
+        for (PendingRequest request : requests) {
+            disasterMessages.add(toRequestMessage(request));
+        }
+        return updateDisasterMessageStatuses(disasterMessages, approvalStatus).size();
+    }
+
+    private static DisasterMessage toRequestMessage(PendingRequest request) {
+        DisasterMessage disasterMessage = new DisasterMessage();
+        disasterMessage.setId(request.getMessageId());
+        disasterMessage.setDisasterId(request.getDisasterId());
+        disasterMessage.setMessage(request.getMessage());
+        disasterMessage.setMessageType(MessageType.REQUEST);
+        return disasterMessage;
     }
 
     /**
      * Updates the approval status of a disaster message and adds a new message
-     * with a prefix indicating the approval.
+     * recording the decision. Both writes are made in one transaction. If
+     * another administrator has already decided the message, nothing is
+     * written.
      *
      * @param disasterMessage The {@code DisasterMessage} object to be updated.
-     * @param prefix The prefix to be added to the new message.
+     * @param decision The type of the decision message,
+     * {@link MessageType#APPROVE} or {@link MessageType#REJECT}.
      * @param approvalStatus The new approval status.
+     * @return {@code true} if this call decided the message, {@code false} if
+     * another administrator had already decided it.
+     * @throws SQLException If the transaction fails. The message keeps its
+     * previous approval status.
      */
-    public void updateDisasterMessageStatus(DisasterMessage disasterMessage, String prefix, int approvalStatus) {
+    public boolean updateDisasterMessageStatus(DisasterMessage disasterMessage, MessageType decision, int approvalStatus) throws SQLException {
+        int previousStatus = disasterMessage.getApprovalStatus();
         disasterMessage.setApprovalStatus(approvalStatus);
 
-        disasterMessageDAO.updateDisasterMessage(disasterMessage);
-
         DisasterMessage disasterMessage2 = new DisasterMessage();
         disasterMessage2.setDisasterId(disasterMessage.getDisasterId());
         disasterMessage2.setDepartmentId(SessionDetails.getInstance().getLoggedInUser().getDepartmentId());
-        disasterMessage2.setMessage(prefix + " " + disasterMessage.getMessage());
+        disasterMessage2.setMessage(decision.format(disasterMessage.getMessage()));
+        disasterMessage2.setMessageType(decision);
         disasterMessage2.setMessagedBy(SessionDetails.getInstance().getLoggedInUser().getUserId());
 
-        disasterMessageDAO.insertDisasterMessage(disasterMessage2);
+        boolean decided;
+        try {
+            decided = UnitOfWork.call(connection -> {
+                // Only the caller whose update applies records the decision
+                if (!disasterMessageDAO.updateDisasterMessage(connection, disasterMessage)) {
+                    return false;
+                }
+                disasterMessageDAO.insertDisasterMessages(connection, List.of(disasterMessage2));
+                return true;
+            });
+        } catch (SQLException e) {
+            disasterMessage.setApprovalStatus(previousStatus);
+            throw e;
+        }
+        if (decided) {
+            TimelineCache.getInstance().writeThroughApproval(disasterMessage.getDisasterId(), disasterMessage.getId(), approvalStatus);
+            writeThrough(disasterMessage2);
+        }
+        return decided;
+    }
+
+    /**
+     * Approves or rejects several requests at once, for example when a surge
+     * of requests is cleared together. Every status change goes in one
+     * batched {@code UPDATE} and every decision message in one batched
+     * {@code INSERT}, all in one transaction.
+     *
+     * <p>
+     * Requests another administrator decided first are skipped, and no
+     * decision message is written for them. Once this method returns, every
+     * request has been decided, by this call or before it.</p>
+     *
+     * @param disasterMessages The request messages to be updated, each with
+     * its ID, disaster ID and text set.
+     * @param approvalStatus The new approval status: 1 to approve, 0 to
+     * reject.
+     * @return The requests this call decided.
+     * @throws SQLException If the transaction fails. No request is decided,
+     * and each keeps its previous approval status.
+     */
+    public List<DisasterMessage> updateDisasterMessageStatuses(List<DisasterMessage> disasterMessages, int approvalStatus) throws SQLException {
+        if (disasterMessages.isEmpty()) {
+            return List.of();
+        }
+        MessageType decision = approvalStatus == 1 ? MessageType.APPROVE : MessageType.REJECT;
+        User loggedInUser = SessionDetails.getInstance().getLoggedInUser();
+
+        int[] previousStatuses = new int[disasterMessages.size()];
+        for (int i = 0; i < disasterMessages.size(); i++) {
+            previousStatuses[i] = disasterMessages.get(i).getApprovalStatus();
+            disasterMessages.get(i).setApprovalStatus(approvalStatus);
+        }
+
+        List<DisasterMessage> decided;
+        List<DisasterMessage> decisionMessages = new ArrayList<>();
+        try {
+            decided = UnitOfWork.call(connection -> {
+                List<DisasterMessage> won = disasterMessageDAO.updateDisasterMessages(connection, disasterMessages);
+                for (DisasterMessage disasterMessage : won) {
+                    DisasterMessage decisionMessage = new DisasterMessage();
+                    decisionMessage.setDisasterId(disasterMessage.getDisasterId());
+                    decisionMessage.setDepartmentId(loggedInUser.getDepartmentId());
+                    decisionMessage.setMessage(decision.format(disasterMessage.getMessage()));
+                    decisionMessage.setMessageType(decision);
+                    decisionMessage.setMessagedBy(loggedInUser.getUserId());
+                    decisionMessages.add(decisionMessage);
+                }
+                disasterMessageDAO.insertDisasterMessages(connection, decisionMessages);
+                return won;
+            });
+        } catch (SQLException e) {
+            for (int i = 0; i < disasterMessages.size(); i++) {
+                disasterMessages.get(i).setApprovalStatus(previousStatuses[i]);
+            }
+            throw e;
+        }
+        for (DisasterMessage disasterMessage : decided) {
+            TimelineCache.getInstance().writeThroughApproval(disasterMessage.getDisasterId(), disasterMessage.getId(), approvalStatus);
+        }
+        for (DisasterMessage decisionMessage : decisionMessages) {
+            writeThrough(decisionMessage);
+        }
+        return decided;
+    }
+
+    /**
+     * Adds a message committed by the logged-in user to its disaster's cached
+     * timeline. The display fields the timeline query would have joined in are
+     * filled from the session; the message time is the one it was stored with.
+     * Messages sent on behalf of another user are left for the next sync.
+     *
+     * @param disasterMessage The committed message, with its generated ID set.
+     */
+    private void writeThrough(DisasterMessage disasterMessage) {
+        // The message changed its disaster's activity and counters
+        DISASTERS_BY_STATUS.invalidate();
+
+        User loggedInUser = SessionDetails.getInstance().getLoggedInUser();
+        if (disasterMessage.getId() == 0 || disasterMessage.getMessagedBy() != loggedInUser.getUserId()) {
+            return;
+        }
+        if (disasterMessage.getMessageTime() == null) {
+            disasterMessage.setMessageTime(LocalDateTime.now());
+        }
+        disasterMessage.setDepartmentName(loggedInUser.getDepartmentName());
+        disasterMessage.setRoleName(loggedInUser.getUserRoleName());
+        disasterMessage.setMessagedByFullName(loggedInUser.getFirstName() + " " + loggedInUser.getLastName());
+
+        TimelineCache.getInstance().writeThrough(disasterMessage);
+    }
+
+    /**
+     * Gets the number of reads that shared a query already in flight instead
+     * of running their own.
+     *
+     * @return The number of deduplicated reads across all instances.
+     */
+    public static long getDeduplicatedReadCount() {
+        return DISASTERS_BY_STATUS.getSharedCount();
+    }
+
+    /**
+     * Gets the number of reads made through the single-flight layer.
+     *
+     * @return The number of coalescable reads across all instances.
+     */
+    public static long getCoalescableReadCount() {
+        return DISASTERS_BY_STATUS.getCallCount();
     }
 }
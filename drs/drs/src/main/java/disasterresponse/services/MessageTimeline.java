@@ -0,0 +1,285 @@
+package disasterresponse.services;
+
+import disasterresponse.models.DisasterMessage;
+import disasterresponse.models.MessageCursor;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code MessageTimeline} class holds the messages of one disaster that
+ * have been fetched so far, newest first. A timeline starts with the latest
+ * page of messages; older pages are added as the user scrolls back, and each
+ * sync adds only the messages posted since, so a long-running incident's
+ * history is never read in one go.
+ *
+ * <p>
+ * A sync reads the messages stamped since the latest message time held, less
+ * {@link DatabaseUtil#CHANGE_OVERLAP_SECONDS}, and skips any message it
+ * already has. Message IDs are not used
+ * for this: they come from a counter shared by every disaster, and a
+ * transaction can commit long after one that took a higher ID, for example
+ * while it waits for the lock on its disaster's activity counters. A message
+ * time is stamped by the database just before the insert, so a message
+ * commits at most a lock wait after its time, and the overlap covers
+ * that.</p>
+ *
+ * <p>
+ * Messages written by this client can be added with
+ * {@link #addLocal(DisasterMessage)} as soon as they are committed. They do
+ * not move the sync position, so messages from other users with lower IDs are
+ * still fetched.</p>
+ *
+ * <p>
+ * A sync does not fetch a request again once it is held, so a decision on it
+ * made by another user only shows once its approval status is read back with
+ * {@link #setApprovalStatuses(Map)}.</p>
+ *
+ * @see DisasterService#syncTimeline(MessageTimeline)
+ * @see DisasterService#loadOlderMessages(MessageTimeline, int)
+ * @see disasterresponse.dao.DisasterMessageDAO
+ *
+ * @author 12236202
+ */
+public class MessageTimeline {
+
+    /**
+     * Newest first: by message time, then by ID, both descending.
+     */
+    private static final Comparator<DisasterMessage> DISPLAY_ORDER = Comparator
+            .comparing(DisasterMessage::getMessageTime)
+            .thenComparingInt(DisasterMessage::getId)
+            .reversed();
+
+    /**
+     * Rough size of a message object and its fixed fields, not counting its
+     * text, in bytes.
+     */
+    private static final int MESSAGE_OVERHEAD_BYTES = 160;
+
+    private final int disasterId;
+    private final List<DisasterMessage> messages = new ArrayList<>();
+    private final Set<Integer> messageIds = new HashSet<>();
+    private LocalDateTime syncedTime;
+    private long estimatedBytes;
+
+    private boolean started;
+    private boolean fullyLoaded;
+    private DisasterMessage oldestPaged;
+
+    /**
+     * Constructs a new, empty {@code MessageTimeline} for a disaster.
+     *
+     * @param disasterId The ID of the disaster.
+     */
+    public MessageTimeline(int disasterId) {
+        this.disasterId = disasterId;
+    }
+
+    /**
+     * Gets the ID of the disaster this timeline belongs to.
+     *
+     * @return The disaster ID.
+     */
+    public int getDisasterId() {
+        return disasterId;
+    }
+
+    /**
+     * Checks whether the latest page of the timeline has been loaded. Until
+     * then, a sync loads that page instead of fetching by time.
+     *
+     * @return {@code true} once the first page has been merged.
+     */
+    public synchronized boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Checks whether every older message has been loaded.
+     *
+     * @return {@code true} once a page came back shorter than requested.
+     */
+    public synchronized boolean isFullyLoaded() {
+        return fullyLoaded;
+    }
+
+    /**
+     * Gets the message time the next sync should fetch from.
+     *
+     * @return The latest fetched message time, less an overlap, or
+     * {@code null} if nothing has been fetched yet.
+     */
+    public synchronized LocalDateTime getSyncFrom() {
+        return syncedTime != null ? syncedTime.minusSeconds(DatabaseUtil.CHANGE_OVERLAP_SECONDS) : null;
+    }
+
+    /**
+     * Gets the position the next older page starts after.
+     *
+     * @return A cursor after the oldest paged message, or {@code null} if no
+     * page has been loaded yet.
+     */
+    public synchronized MessageCursor getOlderCursor() {
+        return MessageCursor.after(oldestPaged);
+    }
+
+    /**
+     * Adds messages fetched by a sync, skipping any the timeline already
+     * holds.
+     *
+     * @param fetched The messages stamped since the sync position.
+     * @return The messages that were new to the timeline, newest first.
+     */
+    public synchronized List<DisasterMessage> merge(List<DisasterMessage> fetched) {
+        List<DisasterMessage> added = new ArrayList<>();
+        for (DisasterMessage message : fetched) {
+            if (messageIds.add(message.getId())) {
+                added.add(message);
+                estimatedBytes += estimateBytes(message);
+            }
+            if (syncedTime == null || message.getMessageTime().isAfter(syncedTime)) {
+                syncedTime = message.getMessageTime();
+            }
+        }
+        added.sort(DISPLAY_ORDER);
+        insertInOrder(messages, added);
+        return added;
+    }
+
+    /**
+     * Adds a page of messages, newest first, that continues the timeline
+     * back in time.
+     *
+     * @param page The messages of the page.
+     * @param pageSize The number of messages the page was asked for.
+     * @return The messages that were new to the timeline, newest first.
+     */
+    public synchronized List<DisasterMessage> mergePage(List<DisasterMessage> page, int pageSize) {
+        started = true;
+        if (page.size() < pageSize) {
+            fullyLoaded = true;
+        }
+        if (!page.isEmpty()) {
+            oldestPaged = page.get(page.size() - 1);
+        }
+        return merge(page);
+    }
+
+    /**
+     * Adds a message this client has just written, unless the timeline
+     * already holds it. The sync position is not moved, so messages from
+     * other users that commit later are still fetched.
+     *
+     * @param message The committed message, with its generated ID and message
+     * time set.
+     */
+    public synchronized void addLocal(DisasterMessage message) {
+        if (messageIds.add(message.getId())) {
+            insertInOrder(messages, List.of(message));
+            estimatedBytes += estimateBytes(message);
+        }
+    }
+
+    /**
+     * Sets the approval status of a message held by the timeline.
+     *
+     * @param messageId The ID of the message.
+     * @param approvalStatus The new approval status.
+     */
+    public synchronized void setApprovalStatus(int messageId, int approvalStatus) {
+        if (!messageIds.contains(messageId)) {
+            return;
+        }
+        for (DisasterMessage message : messages) {
+            if (message.getId() == messageId) {
+                message.setApprovalStatus(approvalStatus);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sets the approval status of every message held by the timeline that is
+     * in the given map, such as statuses read back after another user decided
+     * requests.
+     *
+     * @param approvalStatuses The approval status of each message, by message
+     * ID.
+     */
+    public synchronized void setApprovalStatuses(Map<Integer, Integer> approvalStatuses) {
+        for (DisasterMessage message : messages) {
+            Integer approvalStatus = approvalStatuses.get(message.getId());
+            if (approvalStatus != null) {
+                message.setApprovalStatus(approvalStatus);
+            }
+        }
+    }
+
+    /**
+     * Gets a rough estimate of the memory held by the timeline's messages.
+     *
+     * @return The estimated size in bytes.
+     */
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Gets a copy of the messages held, newest first.
+     *
+     * @return The messages of the timeline.
+     */
+    public synchronized List<DisasterMessage> getMessages() {
+        return new ArrayList<>(messages);
+    }
+
+    /**
+     * Gets the number of messages held.
+     *
+     * @return The number of messages.
+     */
+    public synchronized int size() {
+        return messages.size();
+    }
+
+    private static long estimateBytes(DisasterMessage message) {
+        return MESSAGE_OVERHEAD_BYTES + 2L * (length(message.getMessage()) + length(message.getDepartmentName())
+                + length(message.getRoleName()) + length(message.getMessagedByFullName()));
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    /**
+     * Inserts messages into a list kept newest first, such as the items of a
+     * table showing the timeline. New messages usually go on top and older
+     * pages at the bottom; anything else is placed by its time and ID.
+     *
+     * @param shown The list, newest first.
+     * @param added The messages to insert, newest first.
+     */
+    public static void insertInOrder(List<DisasterMessage> shown, List<DisasterMessage> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        if (shown.isEmpty() || DISPLAY_ORDER.compare(shown.get(shown.size() - 1), added.get(0)) < 0) {
+            shown.addAll(added);
+            return;
+        }
+        if (DISPLAY_ORDER.compare(added.get(added.size() - 1), shown.get(0)) < 0) {
+            shown.addAll(0, added);
+            return;
+        }
+        for (DisasterMessage message : added) {
+            int index = Collections.binarySearch(shown, message, DISPLAY_ORDER);
+            shown.add(index < 0 ? -index - 1 : index, message);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package disasterresponse.services;
+
+import disasterresponse.dao.DisasterMessageDAO;
+import disasterresponse.models.DisasterMessage;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code MessageWriteCoalescer} class groups message inserts that arrive
+ * at the same time into a single transaction. When many responders post
+ * messages at once, their inserts share one multi-row {@code INSERT} and one
+ * commit instead of paying for a commit each.
+ *
+ * <p>
+ * Callers submit a message and receive a future for its generated ID. A single
+ * writer thread takes the first waiting message, collects any others that
+ * arrive within a short window, up to a maximum batch size, and writes them
+ * with {@link DisasterMessageDAO#insertDisasterMessages(java.sql.Connection, List)}.
+ * While one batch is being committed the next one builds up, so batches grow
+ * with the load. If a batch is rejected for its data, its messages are retried
+ * one by one so that a single bad message fails only its own caller. Any other
+ * failure, such as a lost connection or an exhausted pool, fails the whole
+ * batch at once rather than waiting on the database once per message.</p>
+ *
+ * <p>
+ * This class uses the Singleton pattern so that all callers share one writer.</p>
+ *
+ * @see DisasterService#addMessage(int, String)
+ * @see UnitOfWork
+ *
+ * @author 12236202
+ */
+public class MessageWriteCoalescer {
+
+    private static final long WINDOW_MICROS = 2_000;
+    private static final int MAX_BATCH_SIZE = 200;
+
+    private static MessageWriteCoalescer instance;
+
+    private final DisasterMessageDAO disasterMessageDAO;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong messageCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+
+    /**
+     * Constructs a new {@code MessageWriteCoalescer} without a writer thread;
+     * batches are written by calls to {@link #writeBatch()}.
+     *
+     * @param disasterMessageDAO The DAO used to insert the messages.
+     */
+    MessageWriteCoalescer(DisasterMessageDAO disasterMessageDAO) {
+        this.disasterMessageDAO = disasterMessageDAO;
+    }
+
+    /**
+     * Gets the singleton instance of {@code MessageWriteCoalescer}, starting
+     * its writer thread on first use.
+     *
+     * @return The singleton instance of {@code MessageWriteCoalescer}.
+     */
+    public static synchronized MessageWriteCoalescer getInstance() {
+        if (instance == null) {
+            instance = new MessageWriteCoalescer(new DisasterMessageDAO());
+            Thread.ofVirtual().name("message-write-coalescer").start(instance::writeLoop);
+        }
+        return instance;
+    }
+
+    /**
+     * Queues a message to be inserted with the next batch.
+     *
+     * @param disasterMessage The message to be inserted, with its disaster,
+     * department, sender and text set.
+     * @return A future completed with the generated ID of the message once its
+     * batch has been committed, or completed exceptionally if the insert
+     * failed.
+     */
+    public CompletableFuture<Integer> submit(DisasterMessage disasterMessage) {
+        PendingWrite write = new PendingWrite(disasterMessage);
+        queue.add(write);
+        return write.future;
+    }
+
+    /**
+     * Gets the number of transactions committed by the writer.
+     *
+     * @return The number of flushed batches.
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * Gets the number of messages inserted by the writer.
+     *
+     * @return The number of inserted messages.
+     */
+    public long getMessageCount() {
+        return messageCount.get();
+    }
+
+    /**
+     * Gets the number of messages whose insert failed.
+     *
+     * @return The number of failed messages.
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Gets the average number of messages committed per transaction.
+     *
+     * @return The average batch size, or 0 if nothing has been flushed.
+     */
+    public double getAverageBatchSize() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : (double) messageCount.get() / flushes;
+    }
+
+    private void writeLoop() {
+        while (true) {
+            try {
+                writeBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits for a message, collects the messages that follow it within the
+     * batching window and writes them as one batch.
+     *
+     * @throws InterruptedException If interrupted while waiting for messages.
+     */
+    void writeBatch() throws InterruptedException {
+        List<PendingWrite> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        batch.add(queue.take());
+        collect(batch);
+        try {
+            flush(batch);
+        } catch (RuntimeException e) {
+            // Keep the writer alive; fail only the messages of this batch
+            for (PendingWrite write : batch) {
+                write.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void collect(List<PendingWrite> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(WINDOW_MICROS);
+        while (batch.size() < MAX_BATCH_SIZE) {
+            queue.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= MAX_BATCH_SIZE || remaining <= 0) {
+                return;
+            }
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        List<DisasterMessage> messages = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            messages.add(write.message);
+        }
+
+        try {
+            UnitOfWork.run(connection -> disasterMessageDAO.insertDisasterMessages(connection, messages));
+        } catch (SQLException e) {
+            if (batch.size() > 1 && isRejectedData(e)) {
+                // Find the bad message by writing each one on its own
+                for (PendingWrite write : batch) {
+                    flush(List.of(write));
+                }
+                return;
+            }
+            failureCount.addAndGet(batch.size());
+            for (PendingWrite write : batch) {
+                write.future.completeExceptionally(e);
+            }
+            return;
+        }
+
+        flushCount.incrementAndGet();
+        messageCount.addAndGet(batch.size());
+        for (PendingWrite write : batch) {
+            write.future.complete(write.message.getId());
+        }
+    }
+
+    /**
+     * Checks whether the database rejected a batch because of the data of one
+     * of its messages, as opposed to the batch not reaching the database.
+     * Batched statements may wrap the cause, so the whole chain is checked.
+     */
+    private static boolean isRejectedData(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLDataException || cause instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A message waiting to be written, together with its caller's future.
+     */
+    private static final class PendingWrite {
+
+        private final DisasterMessage message;
+        private final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+        private PendingWrite(DisasterMessage message) {
+            this.message = message;
+        }
+    }
+}
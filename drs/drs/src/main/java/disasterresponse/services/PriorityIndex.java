@@ -0,0 +1,329 @@
+package disasterresponse.services;
+
+import disasterresponse.models.Disaster;
+import disasterresponse.priority.PriorityEngine;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The {@code PriorityIndex} class keeps the disasters that are not closed
+ * ordered by priority in memory, so the highest priority disasters can be
+ * found without querying or sorting the whole listing.
+ *
+ * <p>
+ * A disaster's priority, as scored by the {@link PriorityEngine}, is a base
+ * score less a penalty of {@code a} points for every full hour since it was
+ * reported, so every priority changes each hour. Rescoring every entry on the
+ * hour is avoided by ordering on a key that does not change over time:</p>
+ *
+ * <pre>
+ *     key = baseScore * HOUR_MILLIS + a * reportedAtMillis
+ * </pre>
+ *
+ * <p>
+ * At any time {@code t}, {@code (key - a * t) / HOUR_MILLIS} is the priority
+ * before the hours are rounded down, so ordering by the key is ordering by
+ * priority. Rounding can only raise a priority by less than {@code a}
+ * points, so a top-K lookup walks the keys from the top and stops at the
+ * first entry that cannot reach the K-th priority found so far. Inserts,
+ * updates and removals cost O(log n); a lookup costs O(log n + K) plus any
+ * entries tied with the K-th.</p>
+ *
+ * <p>
+ * Changes can arrive out of order, as listings read them on background
+ * threads. The index remembers the last change time it applied for each
+ * disaster, including closed ones, and ignores a row older than that.</p>
+ *
+ * <p>
+ * This class uses the Singleton pattern so that every service shares the same
+ * index. {@link DisasterService} loads it on first use and keeps it in sync
+ * with its own writes and with the changes it reads.</p>
+ *
+ * @see DisasterService#getDisastersByPriority(String, disasterresponse.models.PriorityCursor, int)
+ * @see disasterresponse.dao.DisasterDAO
+ *
+ * @author 12236202
+ */
+public class PriorityIndex {
+
+    /**
+     * Highest key first; newer disasters first among equal keys, as in the
+     * priority listing.
+     */
+    private static final Comparator<Entry> KEY_ORDER = Comparator
+            .comparingLong((Entry entry) -> entry.key)
+            .thenComparingInt(entry -> entry.disaster.getId())
+            .reversed();
+
+    private static PriorityIndex instance;
+
+    private final PriorityEngine engine;
+    private final TreeSet<Entry> byKey = new TreeSet<>(KEY_ORDER);
+    private final Map<Integer, Entry> byId = new HashMap<>();
+    private final Map<Integer, LocalDateTime> appliedAt = new HashMap<>();
+
+    private boolean loaded;
+    private LocalDateTime watermark;
+
+    private PriorityIndex() {
+        this(PriorityEngine.getInstance());
+    }
+
+    /**
+     * Constructs an index that scores with the given engine.
+     *
+     * @param engine The engine to score disasters with.
+     */
+    PriorityIndex(PriorityEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Gets the singleton instance of {@code PriorityIndex}.
+     *
+     * @return The singleton instance of {@code PriorityIndex}.
+     */
+    public static synchronized PriorityIndex getInstance() {
+        if (instance == null) {
+            instance = new PriorityIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Checks whether the index has been loaded.
+     *
+     * @return {@code true} once {@link #load(List)} has been called.
+     */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Replaces the contents of the index.
+     *
+     * @param disasters Every disaster that is not closed.
+     */
+    public synchronized void load(List<Disaster> disasters) {
+        byKey.clear();
+        byId.clear();
+        appliedAt.clear();
+        watermark = null;
+        applyAll(disasters);
+        loaded = true;
+    }
+
+    /**
+     * Gets the change time the next refresh should read from.
+     *
+     * @return The latest change time seen, less
+     * {@link DatabaseUtil#CHANGE_OVERLAP_SECONDS}, or {@code null} if no
+     * disaster has been seen.
+     */
+    public synchronized LocalDateTime getRefreshFrom() {
+        return watermark != null ? watermark.minusSeconds(DatabaseUtil.CHANGE_OVERLAP_SECONDS) : null;
+    }
+
+    /**
+     * Applies changed disasters to the index. A closed disaster is removed; any
+     * other is added, or moved if anything it is scored on changed.
+     *
+     * @param changes The changed disasters, of any status.
+     */
+    public synchronized void applyAll(List<Disaster> changes) {
+        for (Disaster disaster : changes) {
+            apply(disaster);
+        }
+    }
+
+    /**
+     * Applies one changed disaster to the index, unless a later change to it
+     * has already been applied.
+     *
+     * @param disaster The changed disaster.
+     */
+    public synchronized void apply(Disaster disaster) {
+        LocalDateTime updatedAt = disaster.getUpdatedAt();
+        if (updatedAt != null) {
+            LocalDateTime applied = appliedAt.get(disaster.getId());
+            if (applied != null && updatedAt.isBefore(applied)) {
+                // Read before a change that has already been applied
+                return;
+            }
+            appliedAt.put(disaster.getId(), updatedAt);
+            if (watermark == null || updatedAt.isAfter(watermark)) {
+                watermark = updatedAt;
+            }
+        }
+
+        remove(disaster.getId());
+        if (!"Closed".equals(disaster.getStatus()) && disaster.getReportedAt() != null) {
+            // Keep a copy, so the index never shares objects with a table
+            Entry entry = new Entry(copyOf(disaster), keyOf(disaster));
+            byKey.add(entry);
+            byId.put(disaster.getId(), entry);
+        }
+    }
+
+    /**
+     * Records a status change made by this client. A disaster that is closed
+     * leaves the index.
+     *
+     * @param id The ID of the disaster.
+     * @param status The new status.
+     */
+    public synchronized void updateStatus(int id, String status) {
+        if ("Closed".equals(status)) {
+            remove(id);
+            return;
+        }
+        Entry entry = byId.get(id);
+        if (entry != null) {
+            // The status is not part of the key, so the entry stays in place
+            entry.disaster.setStatus(status);
+        }
+    }
+
+    /**
+     * Removes a disaster from the index.
+     *
+     * @param id The ID of the disaster.
+     */
+    public synchronized void remove(int id) {
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            byKey.remove(entry);
+        }
+    }
+
+    /**
+     * Gets the number of disasters in the index.
+     *
+     * @return The number of disasters.
+     */
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    /**
+     * Gets the disasters with the highest priority at the given time. Each
+     * returned disaster is a new copy with its priority set as of that
+     * time.
+     *
+     * @param limit The maximum number of disasters to return.
+     * @param asOf The time to rank the disasters at.
+     * @param status The status of the disasters to return, or {@code null} for
+     * every disaster in the index.
+     * @return At most {@code limit} disasters, highest priority first, and
+     * newest first among equal priorities.
+     */
+    public synchronized List<Disaster> top(int limit, LocalDateTime asOf, String status) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        long asOfMillis = PriorityEngine.toEpochMillis(asOf);
+        // The best candidates so far, at most limit of them, best first
+        TreeSet<Ranked> best = new TreeSet<>(Ranked.RANK_ORDER);
+
+        for (Entry entry : byKey) {
+            if (best.size() >= limit && maxPriority(entry, asOfMillis) < best.last().priority) {
+                // No entry from here on can make the top
+                break;
+            }
+            if (status != null && !status.equals(entry.disaster.getStatus())) {
+                continue;
+            }
+
+            best.add(new Ranked(entry.disaster, engine.score(entry.disaster, asOfMillis)));
+            if (best.size() > limit) {
+                best.pollLast();
+            }
+        }
+
+        List<Disaster> top = new ArrayList<>(best.size());
+        for (Ranked ranked : best) {
+            Disaster disaster = copyOf(ranked.disaster);
+            disaster.setPriority(ranked.priority);
+            disaster.setAsOfMillis(asOfMillis);
+            top.add(disaster);
+        }
+        return top;
+    }
+
+    /**
+     * Calculates the time-independent ordering key of a disaster.
+     */
+    private long keyOf(Disaster disaster) {
+        long baseScore = engine.baseScore(disaster.getType(), disaster.getSeverity(), disaster.getPendingRequestCount());
+        return baseScore * PriorityEngine.HOUR_MILLIS
+                + engine.agePenaltyPerHour() * disaster.getReportedAtMillis();
+    }
+
+    /**
+     * Gets the highest priority an entry can have at the given time: its
+     * priority before rounding the hours down, rounded up, plus what rounding
+     * can add beyond that.
+     */
+    private long maxPriority(Entry entry, long asOfMillis) {
+        int agePenalty = engine.agePenaltyPerHour();
+        return Math.ceilDiv(entry.key - agePenalty * asOfMillis, PriorityEngine.HOUR_MILLIS)
+                + Math.max(agePenalty - 1, 0);
+    }
+
+    private static Disaster copyOf(Disaster disaster) {
+        Disaster copy = new Disaster();
+        copy.setId(disaster.getId());
+        copy.setType(disaster.getType());
+        copy.setLocation(disaster.getLocation());
+        copy.setSeverity(disaster.getSeverity());
+        copy.setDescription(disaster.getDescription());
+        copy.setStatus(disaster.getStatus());
+        copy.setReportedBy(disaster.getReportedBy());
+        copy.setReportedAtMillis(disaster.getReportedAtMillis());
+        copy.setUpdatedAt(disaster.getUpdatedAt());
+        copy.setMessageCount(disaster.getMessageCount());
+        copy.setPendingRequestCount(disaster.getPendingRequestCount());
+        copy.setLastActivityAt(disaster.getLastActivityAt());
+        copy.setPriority(disaster.getPriority());
+        copy.setAsOfMillis(disaster.getAsOfMillis());
+        return copy;
+    }
+
+    /**
+     * A disaster in the index, with its time-independent ordering key.
+     */
+    private static final class Entry {
+
+        private final Disaster disaster;
+        private final long key;
+
+        private Entry(Disaster disaster, long key) {
+            this.disaster = disaster;
+            this.key = key;
+        }
+    }
+
+    /**
+     * A disaster with its priority at the time of a lookup.
+     */
+    private static final class Ranked {
+
+        private static final Comparator<Ranked> RANK_ORDER = Comparator
+                .comparingInt((Ranked ranked) -> ranked.priority)
+                .thenComparingInt(ranked -> ranked.disaster.getId())
+                .reversed();
+
+        private final Disaster disaster;
+        private final int priority;
+
+        private Ranked(Disaster disaster, int priority) {
+            this.disaster = disaster;
+            this.priority = priority;
+        }
+    }
+}
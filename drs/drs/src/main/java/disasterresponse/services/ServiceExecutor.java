@@ -0,0 +1,51 @@
+package disasterresponse.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * The {@code ServiceExecutor} class runs service calls off the JavaFX
+ * Application Thread. Each task runs on its own virtual thread, so blocking
+ * JDBC calls do not tie up a platform thread while MySQL answers.
+ *
+ * <p>
+ * The asynchronous methods of {@link DisasterService} and {@link UserService}
+ * use this executor. Results are delivered through {@code CompletableFuture};
+ * controllers hand them back to the UI thread with
+ * {@code disasterresponse.controllers.FxAsync}.</p>
+ *
+ * @see DisasterService
+ * @see UserService
+ *
+ * @author 12236202
+ */
+public final class ServiceExecutor {
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private ServiceExecutor() {
+    }
+
+    /**
+     * Runs a task on a virtual thread and returns its result as a future.
+     *
+     * @param <T> The type of the task's result.
+     * @param task The task to run.
+     * @return A {@code CompletableFuture} completed with the task's result.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, EXECUTOR);
+    }
+
+    /**
+     * Runs a task with no result on a virtual thread.
+     *
+     * @param task The task to run.
+     * @return A {@code CompletableFuture} completed once the task has run.
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task) {
+        return CompletableFuture.runAsync(task, EXECUTOR);
+    }
+}
@@ -0,0 +1,124 @@
+package disasterresponse.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * The {@code SingleFlight} class lets identical reads that run at the same
+ * time share one database query. The first caller for a key runs the query;
+ * callers that ask for the same key while it is still running wait for that
+ * query and receive its result instead of starting their own.
+ *
+ * <p>
+ * Nothing is cached: once a query has finished, the next call for the same
+ * key runs a fresh query. The result itself is never handed out; every caller
+ * receives its own copy, so that one caller changing the rows it got back does
+ * not change another caller's rows. After a write, {@link #invalidate()} makes
+ * later calls run a fresh query instead of joining one that may have read the
+ * data before the write. Counters report how many calls were made and how many
+ * of them shared another caller's query.</p>
+ *
+ * @param <K> The type of the key that identifies a query.
+ * @param <V> The type of the query result.
+ *
+ * @see DisasterService
+ *
+ * @author 12236202
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final UnaryOperator<V> copier;
+
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong sharedCount = new AtomicLong();
+
+    /**
+     * Constructs a new {@code SingleFlight}.
+     *
+     * @param copier Makes a caller's own copy of a query result.
+     */
+    public SingleFlight(UnaryOperator<V> copier) {
+        this.copier = copier;
+    }
+
+    /**
+     * Runs the query for the key, or waits for the same query if another
+     * caller is already running it.
+     *
+     * @param key The key that identifies the query.
+     * @param query The query to run if none is in flight for the key.
+     * @return The caller's own copy of the result of the query.
+     */
+    public V execute(K key, Supplier<V> query) {
+        callCount.incrementAndGet();
+
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            sharedCount.incrementAndGet();
+            return copier.apply(await(running));
+        }
+
+        try {
+            V result = query.get();
+            own.complete(result);
+            // Callers sharing the query may still be copying the result
+            return copier.apply(result);
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Makes calls that start after this one run a fresh query, rather than
+     * share a query already in flight. Callers already waiting for a query
+     * still receive its result.
+     */
+    public void invalidate() {
+        // Each leader removes only its own entry, so clearing is safe
+        inFlight.clear();
+    }
+
+    /**
+     * Gets the number of calls made through this {@code SingleFlight}.
+     *
+     * @return The number of calls.
+     */
+    public long getCallCount() {
+        return callCount.get();
+    }
+
+    /**
+     * Gets the number of calls that shared a query already in flight instead
+     * of running their own.
+     *
+     * @return The number of deduplicated calls.
+     */
+    public long getSharedCount() {
+        return sharedCount.get();
+    }
+
+    private V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // Rethrow the leader's failure as it was thrown
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
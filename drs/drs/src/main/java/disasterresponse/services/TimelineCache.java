@@ -0,0 +1,206 @@
+package disasterresponse.services;
+
+import disasterresponse.models.DisasterMessage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code TimelineCache} class keeps the message timelines of recently
+ * viewed disasters in memory. Switching back to a disaster shows its cached
+ * timeline at once and fetches only the messages posted since it was last
+ * synced.
+ *
+ * <p>
+ * The cache is bounded by the estimated memory of the messages it holds.
+ * When it grows past its budget, the least recently used timelines are
+ * evicted. Messages written by this client are written through to a cached
+ * timeline as soon as they are committed. Hit, eviction and memory figures
+ * are kept for monitoring.</p>
+ *
+ * <p>
+ * This class uses the Singleton pattern so that every controller shares the
+ * same cache.</p>
+ *
+ * @see MessageTimeline
+ * @see DisasterService
+ *
+ * @author 12236202
+ */
+public class TimelineCache {
+
+    private static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private static TimelineCache instance;
+
+    private final Map<Integer, MessageTimeline> timelines = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxBytes = DEFAULT_MAX_BYTES;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Constructs a new, empty {@code TimelineCache}. The application shares
+     * the one returned by {@link #getInstance()}.
+     */
+    TimelineCache() {
+    }
+
+    /**
+     * Gets the singleton instance of {@code TimelineCache}.
+     *
+     * @return The singleton instance of {@code TimelineCache}.
+     */
+    public static synchronized TimelineCache getInstance() {
+        if (instance == null) {
+            instance = new TimelineCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the timeline of a disaster, creating an empty one if it is not
+     * cached. The timeline becomes the most recently used.
+     *
+     * @param disasterId The ID of the disaster.
+     * @return The cached or new timeline.
+     */
+    public synchronized MessageTimeline getTimeline(int disasterId) {
+        MessageTimeline timeline = timelines.get(disasterId);
+        if (timeline != null) {
+            hitCount++;
+            return timeline;
+        }
+        missCount++;
+        timeline = new MessageTimeline(disasterId);
+        timelines.put(disasterId, timeline);
+        return timeline;
+    }
+
+    /**
+     * Adds a committed message to its disaster's timeline, if that timeline is
+     * cached.
+     *
+     * @param message The committed message, with its generated ID and display
+     * fields set.
+     */
+    public synchronized void writeThrough(DisasterMessage message) {
+        MessageTimeline timeline = timelines.get(message.getDisasterId());
+        if (timeline != null) {
+            timeline.addLocal(message);
+            trim(message.getDisasterId());
+        }
+    }
+
+    /**
+     * Records a committed approval status change in a cached timeline.
+     *
+     * @param disasterId The ID of the disaster the message belongs to.
+     * @param messageId The ID of the message.
+     * @param approvalStatus The new approval status.
+     */
+    public synchronized void writeThroughApproval(int disasterId, int messageId, int approvalStatus) {
+        MessageTimeline timeline = timelines.get(disasterId);
+        if (timeline != null) {
+            timeline.setApprovalStatus(messageId, approvalStatus);
+        }
+    }
+
+    /**
+     * Evicts least recently used timelines until the cache is within its
+     * budget. The given disaster's timeline is kept even if it alone is over
+     * the budget, since it is in use.
+     *
+     * @param inUseDisasterId The ID of the disaster whose timeline is in use.
+     */
+    public synchronized void trim(int inUseDisasterId) {
+        long totalBytes = getEstimatedBytes();
+        Iterator<Map.Entry<Integer, MessageTimeline>> eldest = timelines.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Integer, MessageTimeline> entry = eldest.next();
+            if (entry.getKey() == inUseDisasterId) {
+                continue;
+            }
+            totalBytes -= entry.getValue().getEstimatedBytes();
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Discards every cached timeline.
+     */
+    public synchronized void invalidate() {
+        timelines.clear();
+    }
+
+    /**
+     * Sets the memory budget of the cache and evicts timelines to fit it.
+     *
+     * @param maxBytes The budget in estimated bytes.
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        trim(-1);
+    }
+
+    /**
+     * Gets the number of cached timelines.
+     *
+     * @return The number of timelines.
+     */
+    public synchronized int size() {
+        return timelines.size();
+    }
+
+    /**
+     * Gets the estimated memory held by the cached messages.
+     *
+     * @return The estimated size in bytes.
+     */
+    public synchronized long getEstimatedBytes() {
+        long totalBytes = 0;
+        for (MessageTimeline timeline : timelines.values()) {
+            totalBytes += timeline.getEstimatedBytes();
+        }
+        return totalBytes;
+    }
+
+    /**
+     * Gets the number of lookups that found a cached timeline.
+     *
+     * @return The number of hits.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of lookups that had to start a new timeline.
+     *
+     * @return The number of misses.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the share of lookups that found a cached timeline.
+     *
+     * @return The hit rate between 0 and 1, or 0 if there were no lookups.
+     */
+    public synchronized double getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Gets the number of timelines evicted to stay within the budget.
+     *
+     * @return The number of evictions.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+}
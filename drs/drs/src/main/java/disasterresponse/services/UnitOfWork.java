@@ -0,0 +1,108 @@
+package disasterresponse.services;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The {@code UnitOfWork} class runs a group of DAO calls on one connection
+ * as a single transaction. Either every write in the group is committed, or,
+ * if any of them fails, none of them is.
+ *
+ * <p>
+ * Service methods that change more than one row pass the connection given to
+ * the work to the connection-taking DAO methods, for example
+ * {@code DisasterDAO.updateDisasterStatus(Connection, int, String)}. The group
+ * also borrows a single pooled connection instead of one per statement.</p>
+ *
+ * @see DatabaseUtil
+ * @see DisasterService
+ *
+ * @author 12236202
+ */
+public final class UnitOfWork {
+
+    private UnitOfWork() {
+    }
+
+    /**
+     * Work that runs inside a transaction and returns a result.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+
+        /**
+         * Runs the work on the transaction's connection.
+         *
+         * @param connection The connection of the transaction.
+         * @return The result of the work.
+         * @throws SQLException If a statement fails. The transaction is then
+         * rolled back.
+         */
+        T execute(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Work that runs inside a transaction and returns no result.
+     */
+    @FunctionalInterface
+    public interface VoidWork {
+
+        /**
+         * Runs the work on the transaction's connection.
+         *
+         * @param connection The connection of the transaction.
+         * @throws SQLException If a statement fails. The transaction is then
+         * rolled back.
+         */
+        void execute(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Runs the work in a transaction and returns its result.
+     *
+     * @param <T> The type of the result.
+     * @param work The work to run.
+     * @return The result of the work, once the transaction has committed.
+     * @throws SQLException If the work or the commit fails. Nothing the work
+     * wrote is kept.
+     */
+    public static <T> T call(Work<T> work) throws SQLException {
+        try (Connection connection = DatabaseUtil.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.execute(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                rollback(connection, e);
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Runs the work in a transaction.
+     *
+     * @param work The work to run.
+     * @throws SQLException If the work or the commit fails. Nothing the work
+     * wrote is kept.
+     */
+    public static void run(VoidWork work) throws SQLException {
+        call(connection -> {
+            work.execute(connection);
+            return null;
+        });
+    }
+
+    private static void rollback(Connection connection, Exception cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package disasterresponse.services;
 
-import disasterresponse.dao.DepartmentDAO;
 import disasterresponse.dao.UserDAO;
-import disasterresponse.dao.UserRoleDAO;
 import disasterresponse.models.User;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The {@code UserService} class handles operations related to user management.
@@ -14,11 +13,11 @@ import java.util.List;
  *
  * <p>
  * It provides methods for validating users, fetching user roles and
- * departments, saving and deleting users, and ensuring username uniqueness.</p>
+ * departments, saving and deleting users, and ensuring username uniqueness.
+ * Methods called while a view is loading also have {@code Async} variants that
+ * run on {@link ServiceExecutor}.</p>
  *
  * @see disasterresponse.dao.UserDAO
- * @see disasterresponse.dao.UserRoleDAO
- * @see disasterresponse.dao.DepartmentDAO
  * @see disasterresponse.models.User
  *
  * @autor 12236202
@@ -26,8 +25,6 @@ import java.util.List;
 public class UserService {
 
     private final UserDAO userDAO;
-    private final UserRoleDAO userRoleDAO;
-    private final DepartmentDAO departmentDAO;
 
     /**
      * Constructs a {@code UserService} instance and initializes the necessary
@@ -35,12 +32,12 @@ public class UserService {
      */
     public UserService() {
         userDAO = new UserDAO();
-        userRoleDAO = new UserRoleDAO();
-        departmentDAO = new DepartmentDAO();
     }
 
     /**
-     * Validates the user credentials and sets session details if valid.
+     * Validates the user credentials and sets session details if valid. The
+     * user, their role name and their department name are fetched and the
+     * password is checked in a single database round trip.
      *
      * @param username The username of the user.
      * @param password The password of the user.
@@ -48,17 +45,12 @@ public class UserService {
      * otherwise.
      */
     public boolean validateUser(String username, String password) {
-        User user = userDAO.getUserByUsername(username);
-
-        if (user != null && user.getPassword().equals(password)) {
-            String userRoleName = userRoleDAO.getUserRoleById(user.getUserRole());
-            user.setUserRoleName(userRoleName);
+        User user = userDAO.getUserForLogin(username, password);
 
+        if (user != null) {
             String topMessage = user.getFirstName() + " " + user.getLastName() + " (" + user.getUsername() + ") [" + user.getUserRoleName() + "]";
 
             if (user.getDepartmentId() != 0) {
-                String departmentName = departmentDAO.getDepartmentById(user.getDepartmentId());
-                user.setDepartmentName(departmentName);
                 topMessage += " [Department: " + user.getDepartmentName() + "]";
             }
 
@@ -70,6 +62,19 @@ public class UserService {
         return false;
     }
 
+    /**
+     * Validates the user credentials in the background and sets session
+     * details if valid.
+     *
+     * @param username The username of the user.
+     * @param password The password of the user.
+     * @return A future completed with {@code true} if the user is validated
+     * successfully, {@code false} otherwise.
+     */
+    public CompletableFuture<Boolean> validateUserAsync(String username, String password) {
+        return ServiceExecutor.supplyAsync(() -> validateUser(username, password));
+    }
+
     /**
      * Retrieves a list of all users along with their roles and departments.
      *
@@ -79,6 +84,16 @@ public class UserService {
         return userDAO.getAllUsersWithRolesAndDepartments();
     }
 
+    /**
+     * Retrieves a list of all users along with their roles and departments in
+     * the background.
+     *
+     * @return A future completed with the list of {@code User} objects.
+     */
+    public CompletableFuture<List<User>> getAllUsersWithRolesAndDepartmentsAsync() {
+        return ServiceExecutor.supplyAsync(this::getAllUsersWithRolesAndDepartments);
+    }
+
     /**
      * Retrieves a list of all user roles.
      *
@@ -88,6 +103,15 @@ public class UserService {
         return userDAO.getUserRoles();
     }
 
+    /**
+     * Retrieves a list of all user roles in the background.
+     *
+     * @return A future completed with the list of user role names.
+     */
+    public CompletableFuture<List<String>> getUserRolesAsync() {
+        return ServiceExecutor.supplyAsync(this::getUserRoles);
+    }
+
     /**
      * Retrieves a list of all departments.
      *
@@ -97,6 +121,15 @@ public class UserService {
         return userDAO.getDepartments();
     }
 
+    /**
+     * Retrieves a list of all departments in the background.
+     *
+     * @return A future completed with the list of department names.
+     */
+    public CompletableFuture<List<String>> getDepartmentsAsync() {
+        return ServiceExecutor.supplyAsync(this::getDepartments);
+    }
+
     /**
      * Checks if a given username is unique.
      *
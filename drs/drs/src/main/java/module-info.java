@@ -5,8 +5,13 @@ module disasterresponse {
     requires java.base;
     requires java.sql;
 
+    uses disasterresponse.priority.PriorityEngine;
+
     opens disasterresponse.models to javafx.base;
     opens disasterresponse.controllers to javafx.fxml;
     
     exports disasterresponse;
+    // Priority engines from other modules implement PriorityEngine, which scores Disaster
+    exports disasterresponse.models;
+    exports disasterresponse.priority;
 }
@@ -1,6 +1,6 @@
-package au.pathum.disasterresponse.dao;
+package disasterresponse.dao;
 
-import au.pathum.disasterresponse.services.DatabaseUtil;
+import disasterresponse.services.DatabaseUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
@@ -22,8 +22,9 @@ class DepartmentDAOTest {
 
     @BeforeEach
     void setUp() throws SQLException {
-        // Initialize the DAO
+        // Initialize the DAO and make the reference data cache reload
         departmentDAO = new DepartmentDAO();
+        ReferenceDataCache.getInstance().invalidate();
 
         // Mock the database-related objects
         mockConnection = mock(Connection.class);
@@ -41,8 +42,9 @@ class DepartmentDAOTest {
         try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
             mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
 
-            // Mock result set behavior: returning a department name
-            when(mockResultSet.next()).thenReturn(true);  // Simulate that there is a result
+            // Mock result set behavior: the departments table has one row
+            when(mockResultSet.next()).thenReturn(true).thenReturn(false);
+            when(mockResultSet.getInt("department_id")).thenReturn(1);
             when(mockResultSet.getString("department_name")).thenReturn("IT Department");
 
             // Act
@@ -53,7 +55,6 @@ class DepartmentDAOTest {
             assertEquals("IT Department", departmentName);
 
             // Verify interactions
-            verify(mockPreparedStatement, times(1)).setInt(1, 1);
             verify(mockPreparedStatement, times(1)).executeQuery();
         }
     }
@@ -74,7 +75,6 @@ class DepartmentDAOTest {
             assertNull(departmentName);  // Should return null since no result was found
 
             // Verify interactions
-            verify(mockPreparedStatement, times(1)).setInt(1, 1);
             verify(mockPreparedStatement, times(1)).executeQuery();
         }
     }
@@ -95,7 +95,31 @@ class DepartmentDAOTest {
             assertNull(departmentName);  // Should return null due to exception
 
             // Verify that the prepared statement was used correctly
-            verify(mockPreparedStatement, times(1)).setInt(1, 1);
+            verify(mockPreparedStatement, times(1)).executeQuery();
+        }
+    }
+
+    @Test
+    void testGetDepartmentById_ServedFromCache() throws SQLException {
+        // Mock the DatabaseUtil to return the mocked connection
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+
+            // Mock result set behavior: the departments table has two rows
+            when(mockResultSet.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+            when(mockResultSet.getInt("department_id")).thenReturn(1).thenReturn(2);
+            when(mockResultSet.getString("department_name")).thenReturn("IT Department").thenReturn("Fire Department");
+
+            // Act
+            String first = departmentDAO.getDepartmentById(1);
+            String second = departmentDAO.getDepartmentById(2);
+
+            // Assert
+            assertEquals("IT Department", first);
+            assertEquals("Fire Department", second);
+
+            // Verify that the table was only read once
+            verify(mockPreparedStatement, times(1)).executeQuery();
         }
     }
 }
@@ -1,7 +1,9 @@
-package au.pathum.disasterresponse.dao;
+package disasterresponse.dao;
 
-import au.pathum.disasterresponse.models.Disaster;
-import au.pathum.disasterresponse.services.DatabaseUtil;
+import disasterresponse.models.Disaster;
+import disasterresponse.models.DisasterCursor;
+import disasterresponse.models.PriorityCursor;
+import disasterresponse.services.DatabaseUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
@@ -90,6 +92,9 @@ class DisasterDAOTest {
             assertEquals("Severe flood", disaster.getDescription());
             assertEquals("Open", disaster.getStatus());
             assertEquals(1, disaster.getReportedBy());
+            // Scored for the whole result set with the default weights
+            assertEquals(500, disaster.getPriority());
+            assertEquals("0 hours ago", disaster.getTimeSinceReporting());
         }
     }
 
@@ -111,4 +116,169 @@ class DisasterDAOTest {
             verify(mockStatement, times(1)).executeUpdate();
         }
     }
+
+    @Test
+    void testUpdateDisasterStatus_OnCallerConnection() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+
+        // Act
+        disasterDAO.updateDisasterStatus(mockConnection, 1, "Closed");
+
+        // Assert
+        verify(mockStatement, times(1)).executeUpdate();
+        verify(mockStatement, times(1)).close();
+        verify(mockConnection, never()).close(); // The transaction owns the connection
+    }
+
+    @Test
+    void testGetDisastersChangedSince() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        ResultSet mockResultSet = mock(ResultSet.class);
+        LocalDateTime since = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+            when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+
+            // Mock ResultSet
+            when(mockResultSet.next()).thenReturn(true).thenReturn(false); // Return one row
+            when(mockResultSet.getInt("id")).thenReturn(4);
+            when(mockResultSet.getString("status")).thenReturn("Closed");
+            when(mockResultSet.getTimestamp("reported_at")).thenReturn(Timestamp.valueOf(since.minusDays(1)));
+            when(mockResultSet.getTimestamp("updated_at")).thenReturn(Timestamp.valueOf(since.plusMinutes(3)));
+            when(mockResultSet.getInt("pending_request_count")).thenReturn(2);
+
+            // Act
+            List<Disaster> disasters = disasterDAO.getDisastersChangedSince(since);
+
+            // Assert
+            verify(mockConnection).prepareStatement(contains("updated_at >= ?"));
+            verify(mockStatement, times(1)).setTimestamp(1, Timestamp.valueOf(since));
+            assertEquals(1, disasters.size());
+            assertEquals("Closed", disasters.get(0).getStatus());
+            assertEquals(since.plusMinutes(3), disasters.get(0).getUpdatedAt());
+            assertEquals(2, disasters.get(0).getPendingRequestCount());
+            assertNull(disasters.get(0).getLastActivityAt());
+        }
+    }
+
+    @Test
+    void testGetDisastersPage_AfterCursor() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        ResultSet mockResultSet = mock(ResultSet.class);
+        LocalDateTime lastReportedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+            when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+
+            // Mock ResultSet
+            when(mockResultSet.next()).thenReturn(true).thenReturn(false); // Return one row
+            when(mockResultSet.getInt("id")).thenReturn(7);
+            when(mockResultSet.getString("type")).thenReturn("Fire");
+            when(mockResultSet.getString("status")).thenReturn("Open");
+            when(mockResultSet.getTimestamp("reported_at")).thenReturn(Timestamp.valueOf(lastReportedAt.minusHours(1)));
+
+            // Act
+            List<Disaster> disasters = disasterDAO.getDisastersPage("Open", new DisasterCursor(lastReportedAt, 8), 50);
+
+            // Assert
+            verify(mockConnection).prepareStatement(contains("(reported_at < ? OR (reported_at = ? AND id < ?))"));
+            verify(mockStatement, times(1)).setString(1, "Open");
+            verify(mockStatement, times(1)).setTimestamp(2, Timestamp.valueOf(lastReportedAt));
+            verify(mockStatement, times(1)).setTimestamp(3, Timestamp.valueOf(lastReportedAt));
+            verify(mockStatement, times(1)).setInt(4, 8);
+            verify(mockStatement, times(1)).setInt(5, 50);
+            assertEquals(1, disasters.size());
+            assertEquals(7, disasters.get(0).getId());
+        }
+    }
+
+    @Test
+    void testGetDisastersPage_FirstPage() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        ResultSet mockResultSet = mock(ResultSet.class);
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+            when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+            when(mockResultSet.next()).thenReturn(false);
+
+            // Act
+            List<Disaster> disasters = disasterDAO.getDisastersPage("ALL", null, 50);
+
+            // Assert
+            verify(mockConnection).prepareStatement(argThat((String sql) -> !sql.contains("status = ?") && !sql.contains("reported_at < ?")));
+            verify(mockStatement, times(1)).setInt(1, 50);
+            assertTrue(disasters.isEmpty());
+        }
+    }
+
+    @Test
+    void testGetDisastersByPriority_AfterCursor() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        ResultSet mockResultSet = mock(ResultSet.class);
+        LocalDateTime rankedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+            when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+
+            // Mock ResultSet
+            when(mockResultSet.next()).thenReturn(true).thenReturn(false); // Return one row
+            when(mockResultSet.getInt("id")).thenReturn(3);
+            when(mockResultSet.getInt("severity")).thenReturn(4);
+            when(mockResultSet.getString("status")).thenReturn("Open");
+            when(mockResultSet.getTimestamp("reported_at")).thenReturn(Timestamp.valueOf(rankedAt.minusHours(2)));
+            when(mockResultSet.getInt("priority")).thenReturn(398);
+
+            // Act
+            List<Disaster> disasters = disasterDAO.getDisastersByPriority("ALL", new PriorityCursor(rankedAt, 0, 450, 9), 50);
+
+            // Assert
+            verify(mockConnection).prepareStatement(contains("ORDER BY status_rank, priority DESC, id DESC LIMIT ?"));
+            verify(mockStatement, times(1)).setTimestamp(1, Timestamp.valueOf(rankedAt));
+            verify(mockStatement, times(1)).setInt(2, 0);
+            verify(mockStatement, times(1)).setInt(3, 0);
+            verify(mockStatement, times(1)).setInt(4, 450);
+            verify(mockStatement, times(1)).setInt(5, 450);
+            verify(mockStatement, times(1)).setInt(6, 9);
+            verify(mockStatement, times(1)).setInt(7, 50);
+            assertEquals(1, disasters.size());
+            assertEquals(398, disasters.get(0).getPriority());
+        }
+    }
+
+    @Test
+    void testRepairActivityCounters() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+            when(mockStatement.executeUpdate()).thenReturn(3);
+
+            // Act
+            int repaired = disasterDAO.repairActivityCounters(500, 1000);
+
+            // Assert
+            verify(mockConnection).prepareStatement(contains("WHERE d.id > ? AND d.id <= ?"));
+            verify(mockStatement, times(1)).setInt(1, 500);
+            verify(mockStatement, times(1)).setInt(2, 1000);
+            verify(mockStatement, times(1)).setInt(3, 500);
+            verify(mockStatement, times(1)).setInt(4, 1000);
+            assertEquals(3, repaired);
+        }
+    }
 }
@@ -1,9 +1,13 @@
-package au.pathum.disasterresponse.dao;
+package disasterresponse.dao;
 
-import au.pathum.disasterresponse.models.DisasterMessage;
-import au.pathum.disasterresponse.services.DatabaseUtil;
+import disasterresponse.models.DisasterMessage;
+import disasterresponse.models.MessageCursor;
+import disasterresponse.models.MessageType;
+import disasterresponse.models.PendingRequest;
+import disasterresponse.services.DatabaseUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
@@ -11,9 +15,11 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,12 +41,14 @@ class DisasterMessageDAOTest {
         disasterMessage.setMessage("Test message");
         disasterMessage.setMessagedBy(3);
 
+        LocalDateTime databaseNow = LocalDateTime.of(2024, 5, 1, 10, 15, 30);
         Connection mockConnection = mock(Connection.class);
         PreparedStatement mockStatement = mock(PreparedStatement.class);
 
         try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
             mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
             when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+            mockDatabaseClock(mockConnection, databaseNow);
 
             // Act
             disasterMessageDAO.insertDisasterMessage(disasterMessage);
@@ -49,8 +57,72 @@ class DisasterMessageDAOTest {
             verify(mockStatement, times(1)).setInt(1, 1);
             verify(mockStatement, times(1)).setInt(2, 2);
             verify(mockStatement, times(1)).setString(3, "Test message");
-            verify(mockStatement, times(1)).setInt(4, 3);
+            verify(mockStatement, times(1)).setInt(5, 3);
+            verify(mockStatement, times(1)).setString(6, "UPDATE");
             verify(mockStatement, times(1)).executeUpdate();
+
+            // The message and its disaster's last activity get the database's time
+            assertEquals(databaseNow, disasterMessage.getMessageTime());
+            Timestamp messageTime = Timestamp.valueOf(databaseNow);
+            verify(mockStatement, times(1)).setTimestamp(4, messageTime);
+            verify(mockStatement, times(1)).setTimestamp(1, messageTime);
+            verify(mockStatement, times(1)).setTimestamp(2, messageTime);
+        }
+    }
+
+    @Test
+    void testInsertDisasterMessages() throws SQLException {
+        DisasterMessage first = new DisasterMessage();
+        first.setDisasterId(1);
+        first.setDepartmentId(2);
+        first.setMessage("First update");
+        first.setMessagedBy(3);
+
+        LocalDateTime queuedAt = LocalDateTime.of(2024, 5, 1, 9, 30);
+        DisasterMessage second = new DisasterMessage();
+        second.setDisasterId(1);
+        second.setDepartmentId(2);
+        second.setMessage("Second update");
+        second.setMessagedBy(3);
+        second.setMessageTime(queuedAt);
+
+        LocalDateTime databaseNow = LocalDateTime.of(2024, 5, 1, 10, 15, 30);
+        Connection mockConnection = mock(Connection.class);
+        mockDatabaseClock(mockConnection, databaseNow);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        PreparedStatement mockCounterStatement = mock(PreparedStatement.class);
+        ResultSet mockKeys = mock(ResultSet.class);
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(mockStatement);
+            when(mockConnection.prepareStatement(contains("UPDATE disasters"))).thenReturn(mockCounterStatement);
+            when(mockStatement.getGeneratedKeys()).thenReturn(mockKeys);
+            when(mockKeys.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+            when(mockKeys.getInt(1)).thenReturn(41).thenReturn(42);
+
+            // Act
+            disasterMessageDAO.insertDisasterMessages(List.of(first, second));
+
+            // Assert: the queued message is stored with the database's time too
+            assertEquals(databaseNow, first.getMessageTime());
+            assertEquals(databaseNow, second.getMessageTime());
+            verify(mockStatement, times(2)).setTimestamp(4, Timestamp.valueOf(databaseNow));
+            verify(mockStatement, never()).setTimestamp(4, Timestamp.valueOf(queuedAt));
+            verify(mockStatement, times(2)).addBatch();
+            verify(mockStatement, times(1)).executeBatch();
+            verify(mockStatement, never()).executeUpdate();
+            assertEquals(41, first.getId());
+            assertEquals(42, second.getId());
+
+            // One counter update for the disaster, with the stored time
+            verify(mockCounterStatement, times(1)).setTimestamp(1, Timestamp.valueOf(databaseNow));
+            verify(mockCounterStatement, times(1)).setTimestamp(2, Timestamp.valueOf(databaseNow));
+            verify(mockCounterStatement, times(1)).setInt(3, 2); // messages
+            verify(mockCounterStatement, times(1)).setInt(4, 0); // requests
+            verify(mockCounterStatement, times(1)).setInt(5, 1); // disasterId
+            verify(mockCounterStatement, times(1)).addBatch();
+            verify(mockConnection).commit();
         }
     }
 
@@ -91,9 +163,127 @@ class DisasterMessageDAOTest {
     }
 
     @Test
-    void testGetMessagesByPrefix() throws SQLException {
+    void testGetDisasterMessagesSince() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        ResultSet mockResultSet = mock(ResultSet.class);
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+            when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+            when(mockResultSet.next()).thenReturn(true).thenReturn(false);
+
+            // Set up the mock result set
+            when(mockResultSet.getInt("id")).thenReturn(121);
+            when(mockResultSet.getInt("disasterId")).thenReturn(1);
+            when(mockResultSet.getTimestamp("messageTime")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+            when(mockResultSet.getString("message")).thenReturn("Newer message");
+
+            // Act
+            List<DisasterMessage> messages = disasterMessageDAO.getDisasterMessagesSince(1, 120);
+
+            // Assert
+            verify(mockConnection).prepareStatement(contains("dm.id > ?"));
+            verify(mockStatement, times(1)).setInt(1, 1);
+            verify(mockStatement, times(1)).setInt(2, 120);
+            assertEquals(1, messages.size());
+            assertEquals(121, messages.get(0).getId());
+        }
+    }
+
+    @Test
+    void testGetApprovalStatuses() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        ResultSet mockResultSet = mock(ResultSet.class);
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+            when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+            when(mockResultSet.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+            when(mockResultSet.getInt("id")).thenReturn(10).thenReturn(11);
+            when(mockResultSet.getInt("approval_status")).thenReturn(1).thenReturn(0);
+
+            // Act
+            Map<Integer, Integer> approvalStatuses = disasterMessageDAO.getApprovalStatuses(4, MessageType.REQUEST);
+
+            // Assert
+            verify(mockStatement, times(1)).setInt(1, 4);
+            verify(mockStatement, times(1)).setString(2, "REQUEST");
+            assertEquals(Map.of(10, 1, 11, 0), approvalStatuses);
+        }
+    }
+
+    @Test
+    void testGetDisasterMessagesFrom() throws SQLException {
+        LocalDateTime since = LocalDateTime.of(2024, 5, 1, 9, 28);
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        ResultSet mockResultSet = mock(ResultSet.class);
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+            when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+            when(mockResultSet.next()).thenReturn(true).thenReturn(false);
+
+            // A message that took a lower ID but committed after the last sync
+            when(mockResultSet.getInt("id")).thenReturn(95);
+            when(mockResultSet.getInt("disasterId")).thenReturn(1);
+            when(mockResultSet.getTimestamp("messageTime")).thenReturn(Timestamp.valueOf(since.plusMinutes(1)));
+            when(mockResultSet.getString("message")).thenReturn("Late commit");
+
+            // Act
+            List<DisasterMessage> messages = disasterMessageDAO.getDisasterMessagesFrom(1, since);
+
+            // Assert
+            verify(mockConnection).prepareStatement(contains("dm.disasterId = ? AND dm.messageTime >= ? ORDER BY dm.messageTime, dm.id"));
+            verify(mockStatement, times(1)).setInt(1, 1);
+            verify(mockStatement, times(1)).setTimestamp(2, Timestamp.valueOf(since));
+            assertEquals(1, messages.size());
+            assertEquals(95, messages.get(0).getId());
+        }
+    }
+
+    @Test
+    void testGetDisasterMessagesPage_AfterCursor() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        ResultSet mockResultSet = mock(ResultSet.class);
+        LocalDateTime lastMessageTime = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+            when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+            when(mockResultSet.next()).thenReturn(true).thenReturn(false);
+
+            // Set up the mock result set
+            when(mockResultSet.getInt("id")).thenReturn(88);
+            when(mockResultSet.getTimestamp("messageTime")).thenReturn(Timestamp.valueOf(lastMessageTime.minusMinutes(5)));
+            when(mockResultSet.getString("message")).thenReturn("Older message");
+
+            // Act
+            List<DisasterMessage> messages = disasterMessageDAO.getDisasterMessagesPage(1, new MessageCursor(lastMessageTime, 90), 50);
+
+            // Assert
+            verify(mockConnection).prepareStatement(contains("ORDER BY dm.messageTime DESC, dm.id DESC LIMIT ?"));
+            verify(mockStatement, times(1)).setInt(1, 1);
+            verify(mockConnection).prepareStatement(contains("(dm.messageTime < ? OR (dm.messageTime = ? AND dm.id < ?))"));
+            verify(mockStatement, times(1)).setTimestamp(2, Timestamp.valueOf(lastMessageTime));
+            verify(mockStatement, times(1)).setTimestamp(3, Timestamp.valueOf(lastMessageTime));
+            verify(mockStatement, times(1)).setInt(4, 90);
+            verify(mockStatement, times(1)).setInt(5, 50);
+            assertEquals(1, messages.size());
+            assertEquals(88, messages.get(0).getId());
+        }
+    }
+
+    @Test
+    void testGetPendingMessagesByType() throws SQLException {
         int disasterId = 1;
-        String prefix = "[REQUEST]";
 
         Connection mockConnection = mock(Connection.class);
         PreparedStatement mockStatement = mock(PreparedStatement.class);
@@ -107,18 +297,59 @@ class DisasterMessageDAOTest {
 
             // Set up the mock result set
             when(mockResultSet.getInt("id")).thenReturn(1);
+            when(mockResultSet.getInt("disasterId")).thenReturn(disasterId);
             when(mockResultSet.getTimestamp("messageTime")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
             when(mockResultSet.getString("departmentId")).thenReturn("Fire Department");
             when(mockResultSet.getString("message")).thenReturn("[REQUEST] Send resources");
 
             // Act
-            List<DisasterMessage> messages = disasterMessageDAO.getMessagesByPrefix(disasterId, prefix);
+            List<DisasterMessage> messages = disasterMessageDAO.getPendingMessagesByType(disasterId, MessageType.REQUEST);
 
             // Assert
-            assertNotNull(messages);
+            verify(mockConnection).prepareStatement(contains("message_type = ? AND approval_status IS NULL"));
+            verify(mockStatement, times(1)).setInt(1, disasterId);
+            verify(mockStatement, times(1)).setString(2, "REQUEST");
             assertEquals(1, messages.size());
             DisasterMessage message = messages.get(0);
-            assertEquals("[REQUEST] Send resources", message.getMessage());
+            assertEquals(disasterId, message.getDisasterId());
+            assertEquals(MessageType.REQUEST, message.getMessageType());
+        }
+    }
+
+    @Test
+    void testGetPendingRequestInbox() throws SQLException {
+        LocalDateTime asOf = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        ResultSet mockResultSet = mock(ResultSet.class);
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+            when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+            when(mockResultSet.next()).thenReturn(true).thenReturn(false);
+
+            // Set up the mock result set
+            when(mockResultSet.getInt("id")).thenReturn(7);
+            when(mockResultSet.getInt("disasterId")).thenReturn(3);
+            when(mockResultSet.getTimestamp("messageTime")).thenReturn(Timestamp.valueOf(asOf.minusHours(2)));
+            when(mockResultSet.getString("message")).thenReturn("[REQUEST] Send water");
+            when(mockResultSet.getString("type")).thenReturn("Flood");
+            when(mockResultSet.getInt("priority")).thenReturn(495);
+
+            // Act
+            List<PendingRequest> requests = disasterMessageDAO.getPendingRequestInbox(asOf);
+
+            // Assert
+            verify(mockConnection).prepareStatement(contains("ORDER BY priority DESC, dm.messageTime, dm.id"));
+            verify(mockStatement, times(1)).setTimestamp(1, Timestamp.valueOf(asOf));
+            assertEquals(1, requests.size());
+            PendingRequest request = requests.get(0);
+            assertEquals(7, request.getMessageId());
+            assertEquals(3, request.getDisasterId());
+            assertEquals("Flood", request.getDisasterType());
+            assertEquals(495, request.getPriority());
         }
     }
 
@@ -139,9 +370,109 @@ class DisasterMessageDAOTest {
             disasterMessageDAO.updateDisasterMessage(disasterMessage);
 
             // Assert
+            verify(mockConnection).prepareStatement(contains("WHERE id = ? AND approval_status IS NULL"));
             verify(mockStatement, times(1)).setInt(1, 1); // approvalStatus
             verify(mockStatement, times(1)).setInt(2, 1); // id
             verify(mockStatement, times(1)).executeUpdate();
         }
     }
+
+    @Test
+    void testUpdateDisasterMessages_Batch() throws SQLException {
+        DisasterMessage first = new DisasterMessage();
+        first.setId(1);
+        first.setApprovalStatus(1);
+        DisasterMessage second = new DisasterMessage();
+        second.setId(2);
+        second.setApprovalStatus(1);
+
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        PreparedStatement mockCountStatement = mock(PreparedStatement.class);
+        PreparedStatement mockCounterStatement = mock(PreparedStatement.class);
+        ResultSet mockCounts = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockConnection.prepareStatement(contains("AS decided"))).thenReturn(mockCountStatement);
+        when(mockConnection.prepareStatement(contains("UPDATE disasters"))).thenReturn(mockCounterStatement);
+        when(mockStatement.executeBatch()).thenReturn(new int[]{1, 0});
+        when(mockCountStatement.executeQuery()).thenReturn(mockCounts);
+        when(mockCounts.next()).thenReturn(true).thenReturn(false);
+        when(mockCounts.getInt("disasterId")).thenReturn(7);
+        when(mockCounts.getInt("decided")).thenReturn(1);
+
+        // Act
+        List<DisasterMessage> decided = disasterMessageDAO.updateDisasterMessages(mockConnection, List.of(first, second));
+
+        // Assert
+        verify(mockStatement, times(2)).setInt(1, 1); // approvalStatus
+        verify(mockStatement, times(1)).setInt(2, 1); // id
+        verify(mockStatement, times(1)).setInt(2, 2); // id
+        verify(mockStatement, times(2)).addBatch();
+        verify(mockStatement, times(1)).executeBatch();
+        verify(mockStatement, never()).executeUpdate();
+        assertEquals(List.of(first), decided);
+        verify(mockCountStatement, times(1)).setInt(1, 1); // only the decided request
+        verify(mockCounterStatement, times(1)).setInt(1, 1); // decided
+        verify(mockCounterStatement, times(1)).setInt(2, 7); // disasterId
+        verify(mockCounterStatement, times(1)).executeBatch();
+    }
+
+    @Test
+    void testInsertDisasterMessages_CountersInIdOrder() throws SQLException {
+        DisasterMessage later = new DisasterMessage();
+        later.setDisasterId(9);
+        later.setMessage("Update on 9");
+        DisasterMessage earlier = new DisasterMessage();
+        earlier.setDisasterId(3);
+        earlier.setMessage("Update on 3");
+
+        Connection mockConnection = mock(Connection.class);
+        mockDatabaseClock(mockConnection, LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        PreparedStatement mockCounterStatement = mock(PreparedStatement.class);
+        ResultSet mockKeys = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(mockStatement);
+        when(mockConnection.prepareStatement(contains("UPDATE disasters"))).thenReturn(mockCounterStatement);
+        when(mockStatement.getGeneratedKeys()).thenReturn(mockKeys);
+
+        // Act
+        disasterMessageDAO.insertDisasterMessages(mockConnection, List.of(later, earlier));
+
+        // Assert: disasters are locked in ascending ID order, whatever the message order
+        InOrder inOrder = inOrder(mockCounterStatement);
+        inOrder.verify(mockCounterStatement).setInt(5, 3);
+        inOrder.verify(mockCounterStatement).setInt(5, 9);
+        inOrder.verify(mockCounterStatement).executeBatch();
+    }
+
+    @Test
+    void testUpdateDisasterMessage_AlreadyDecided() throws SQLException {
+        DisasterMessage disasterMessage = new DisasterMessage();
+        disasterMessage.setId(1);
+        disasterMessage.setApprovalStatus(1);
+
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(0);
+
+        // Act
+        boolean decided = disasterMessageDAO.updateDisasterMessage(mockConnection, disasterMessage);
+
+        // Assert
+        assertFalse(decided);
+    }
+
+    /**
+     * Answers the query for the database's current time on the given
+     * connection. Must be stubbed after any catch-all {@code prepareStatement}.
+     */
+    private static void mockDatabaseClock(Connection mockConnection, LocalDateTime now) throws SQLException {
+        PreparedStatement mockClockStatement = mock(PreparedStatement.class);
+        ResultSet mockClock = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(contains("SELECT CURRENT_TIMESTAMP"))).thenReturn(mockClockStatement);
+        when(mockClockStatement.executeQuery()).thenReturn(mockClock);
+        when(mockClock.next()).thenReturn(true);
+        when(mockClock.getTimestamp(1)).thenReturn(Timestamp.valueOf(now));
+    }
 }
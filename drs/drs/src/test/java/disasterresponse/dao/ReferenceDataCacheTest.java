@@ -0,0 +1,115 @@
+package disasterresponse.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceDataCacheTest {
+
+    private static final IdNameMap ROLES = new IdNameMap(new int[]{1, 2}, new String[]{"Responder", "Public User"});
+    private static final IdNameMap RENAMED_ROLES = new IdNameMap(new int[]{1, 2}, new String[]{"Field Responder", "Public User"});
+    private static final IdNameMap DEPARTMENTS = new IdNameMap(new int[]{1}, new String[]{"Fire"});
+
+    @Test
+    void testGet_LoadsOnceWithinTtl() {
+        ScriptedLoader roles = new ScriptedLoader(ROLES);
+        ReferenceDataCache cache = new ReferenceDataCache(roles, new ScriptedLoader(DEPARTMENTS));
+
+        assertEquals("Responder", cache.getUserRoles().getName(1));
+        assertEquals("Responder", cache.getUserRoles().getName(1));
+        assertEquals("Fire", cache.getDepartments().getName(1));
+
+        assertEquals(1, roles.calls);
+    }
+
+    @Test
+    void testGet_FailedReloadKeepsLastGoodData() throws InterruptedException {
+        ScriptedLoader roles = new ScriptedLoader(ROLES, null, RENAMED_ROLES);
+        ReferenceDataCache cache = new ReferenceDataCache(roles, new ScriptedLoader(DEPARTMENTS));
+        cache.setTtlMillis(50);
+        cache.getUserRoles();
+
+        Thread.sleep(60);
+        // The reload fails; the roles loaded before are still served
+        assertEquals("Responder", cache.getUserRoles().getName(1));
+        assertEquals(2, roles.calls);
+
+        // Backing off: no query while the database is down
+        assertEquals("Responder", cache.getUserRoles().getName(1));
+        assertEquals(2, roles.calls);
+
+        Thread.sleep(60);
+        assertEquals("Field Responder", cache.getUserRoles().getName(1));
+        assertEquals(3, roles.calls);
+    }
+
+    @Test
+    void testGet_FailedFirstLoadBacksOff() {
+        ScriptedLoader roles = new ScriptedLoader((IdNameMap) null);
+        ReferenceDataCache cache = new ReferenceDataCache(roles, new ScriptedLoader(DEPARTMENTS));
+
+        assertNull(cache.getUserRoles().getName(1));
+        assertNull(cache.getUserRoles().getName(1));
+        assertNull(cache.getUserRoles().getName(2));
+
+        assertEquals(1, roles.calls);
+    }
+
+    @Test
+    void testReload_ForcesLoadDuringBackOff() {
+        ScriptedLoader roles = new ScriptedLoader(null, ROLES);
+        ReferenceDataCache cache = new ReferenceDataCache(roles, new ScriptedLoader(DEPARTMENTS));
+        cache.getUserRoles();
+
+        cache.reload();
+
+        assertEquals("Responder", cache.getUserRoles().getName(1));
+        assertEquals(2, roles.calls);
+    }
+
+    @Test
+    void testInvalidate_DiscardsDataAndBackOff() {
+        ScriptedLoader roles = new ScriptedLoader(null, ROLES);
+        ReferenceDataCache cache = new ReferenceDataCache(roles, new ScriptedLoader(DEPARTMENTS));
+        cache.getUserRoles();
+
+        cache.invalidate();
+
+        assertEquals("Responder", cache.getUserRoles().getName(1));
+        assertEquals(2, roles.calls);
+    }
+
+    /**
+     * Returns the given results in turn, repeating the last one, and counts
+     * the loads. A {@code null} result is a failed load.
+     */
+    private static final class ScriptedLoader implements Supplier<IdNameMap> {
+
+        private static final IdNameMap FAILED = new IdNameMap(new int[0], new String[0]);
+
+        private final Deque<IdNameMap> results;
+        private IdNameMap last;
+        private int calls;
+
+        private ScriptedLoader(IdNameMap... results) {
+            this.results = new ArrayDeque<>();
+            for (IdNameMap result : results) {
+                // ArrayDeque does not hold nulls
+                this.results.add(result != null ? result : FAILED);
+            }
+        }
+
+        @Override
+        public IdNameMap get() {
+            calls++;
+            if (!results.isEmpty()) {
+                last = results.poll();
+            }
+            return last == FAILED ? null : last;
+        }
+    }
+}
@@ -1,10 +1,10 @@
-package au.pathum.disasterresponse.dao;
+package disasterresponse.dao;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
-import au.pathum.disasterresponse.models.User;
-import au.pathum.disasterresponse.services.DatabaseUtil;
+import disasterresponse.models.User;
+import disasterresponse.services.DatabaseUtil;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -39,34 +39,83 @@ public class UserDAOTest {
     @Test
     public void testGetUserByUsername_Success() throws SQLException {
         // Mock the DatabaseUtil to return the mocked connection
-        MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class);
-        mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
-
-        when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
-        // Mocking resultSet behavior
-        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
-        when(mockResultSet.next()).thenReturn(true);
-        when(mockResultSet.getInt("user_id")).thenReturn(1);
-        when(mockResultSet.getString("username")).thenReturn("testuser");
-        when(mockResultSet.getString("first_name")).thenReturn("Test");
-        when(mockResultSet.getString("last_name")).thenReturn("User");
-        when(mockResultSet.getString("password")).thenReturn("password123");
-        when(mockResultSet.getInt("user_role")).thenReturn(1);
-        when(mockResultSet.getInt("department_id")).thenReturn(1);
-        when(mockResultSet.getInt("created_by")).thenReturn(1);
-
-        // Call the method
-        User result = userDAO.getUserByUsername("testuser");
-
-        // Verify the result
-        assertNotNull(result);
-        assertEquals("testuser", result.getUsername());
-        assertEquals("Test", result.getFirstName());
-        assertEquals("User", result.getLastName());
-
-        // Verify that the prepared statement was executed
-        verify(mockPreparedStatement, times(1)).setString(1, "testuser");
-        verify(mockPreparedStatement, times(1)).executeQuery();
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
+            // Mocking resultSet behavior
+            when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+            when(mockResultSet.next()).thenReturn(true);
+            when(mockResultSet.getInt("user_id")).thenReturn(1);
+            when(mockResultSet.getString("username")).thenReturn("testuser");
+            when(mockResultSet.getString("first_name")).thenReturn("Test");
+            when(mockResultSet.getString("last_name")).thenReturn("User");
+            when(mockResultSet.getString("password")).thenReturn("password123");
+            when(mockResultSet.getInt("user_role")).thenReturn(1);
+            when(mockResultSet.getInt("department_id")).thenReturn(1);
+            when(mockResultSet.getInt("created_by")).thenReturn(1);
+
+            // Call the method
+            User result = userDAO.getUserByUsername("testuser");
+
+            // Verify the result
+            assertNotNull(result);
+            assertEquals("testuser", result.getUsername());
+            assertEquals("Test", result.getFirstName());
+            assertEquals("User", result.getLastName());
+
+            // Verify that the prepared statement was executed
+            verify(mockPreparedStatement, times(1)).setString(1, "testuser");
+            verify(mockPreparedStatement, times(1)).executeQuery();
+        }
+    }
+
+    @Test
+    public void testGetUserForLogin_Success() throws SQLException {
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
+            when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+
+            // Mocking a joined user row
+            when(mockResultSet.next()).thenReturn(true);
+            when(mockResultSet.getInt("user_id")).thenReturn(3);
+            when(mockResultSet.getString("username")).thenReturn("depadmin");
+            when(mockResultSet.getString("password")).thenReturn("123");
+            when(mockResultSet.getInt("user_role")).thenReturn(3);
+            when(mockResultSet.getString("role_name")).thenReturn("Department Administrator");
+            when(mockResultSet.getInt("department_id")).thenReturn(1);
+            when(mockResultSet.getString("department_name")).thenReturn("Fire Department");
+
+            // Call the method
+            User result = userDAO.getUserForLogin("depadmin", "123");
+
+            // Verify the result
+            assertNotNull(result);
+            assertEquals("Department Administrator", result.getUserRoleName());
+            assertEquals("Fire Department", result.getDepartmentName());
+
+            // Verify that a single query was executed
+            verify(mockConnection, times(1)).prepareStatement(anyString());
+            verify(mockPreparedStatement, times(1)).setString(1, "depadmin");
+        }
+    }
+
+    @Test
+    public void testGetUserForLogin_WrongPassword() throws SQLException {
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
+            when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+            when(mockResultSet.next()).thenReturn(true);
+            when(mockResultSet.getString("password")).thenReturn("123");
+
+            // Call the method
+            User result = userDAO.getUserForLogin("depadmin", "wrong");
+
+            // Verify the result
+            assertNull(result);
+        }
     }
 
 //    @Test
@@ -1,6 +1,6 @@
-package au.pathum.disasterresponse.dao;
+package disasterresponse.dao;
 
-import au.pathum.disasterresponse.services.DatabaseUtil;
+import disasterresponse.services.DatabaseUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
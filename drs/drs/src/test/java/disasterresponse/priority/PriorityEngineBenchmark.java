@@ -0,0 +1,123 @@
+package disasterresponse.priority;
+
+import disasterresponse.models.Disaster;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares scoring a result set one {@code Disaster} at a time, as the row
+ * mapper used to, with the {@link PriorityEngine} batch scorer.
+ *
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriorityEngineBenchmark {
+
+    private static final String[] TYPES = {"Flood", "Earthquake", "Fire", "Tornado"};
+
+    @Param({"100", "10000"})
+    private int rows;
+
+    private PriorityEngine engine;
+    private List<Disaster> disasters;
+    private String[] types;
+    private int[] severities;
+    private int[] pendingRequests;
+    private long[] reportedAtMillis;
+    private int[] scores;
+
+    @Setup
+    public void setUp() {
+        engine = new WeightedPriorityEngine(new PriorityWeights(100, 1, 5,
+                Map.of("Flood", 20, "Earthquake", 40, "Fire", 30)));
+
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        disasters = new ArrayList<>(rows);
+        types = new String[rows];
+        severities = new int[rows];
+        pendingRequests = new int[rows];
+        reportedAtMillis = new long[rows];
+        scores = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            Disaster disaster = new Disaster();
+            disaster.setId(i + 1);
+            disaster.setType(TYPES[random.nextInt(TYPES.length)]);
+            disaster.setSeverity(1 + random.nextInt(5));
+            disaster.setPendingRequestCount(random.nextInt(4));
+            disaster.setReportedAt(now.minusMinutes(random.nextInt(60 * 24 * 30)));
+            disasters.add(disaster);
+
+            types[i] = disaster.getType();
+            severities[i] = disaster.getSeverity();
+            pendingRequests[i] = disaster.getPendingRequestCount();
+            reportedAtMillis[i] = PriorityEngine.toEpochMillis(disaster.getReportedAt());
+        }
+    }
+
+    /**
+     * The row mapper before the engine: reads the clock and works out a
+     * {@code Duration} for every disaster.
+     */
+    @Benchmark
+    public int perObjectCurrent() {
+        int sum = 0;
+        for (Disaster disaster : disasters) {
+            long timeSinceHours = Duration.between(disaster.getReportedAt(), LocalDateTime.now()).toHours();
+            disaster.setPriority(disaster.getSeverity() * 100 - (int) timeSinceHours);
+            sum += disaster.getPriority();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int perObjectEngine() {
+        LocalDateTime asOf = LocalDateTime.now();
+        int sum = 0;
+        for (Disaster disaster : disasters) {
+            disaster.setPriority(engine.score(disaster, asOf));
+            sum += disaster.getPriority();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int[] batchArrays() {
+        engine.scoreAll(types, severities, pendingRequests, reportedAtMillis,
+                PriorityEngine.toEpochMillis(LocalDateTime.now()), scores);
+        return scores;
+    }
+
+    /**
+     * The path the DAO takes: copies the list into arrays, scores them, and
+     * sets each priority.
+     */
+    @Benchmark
+    public List<Disaster> batchList() {
+        engine.scoreAll(disasters, LocalDateTime.now());
+        return disasters;
+    }
+}
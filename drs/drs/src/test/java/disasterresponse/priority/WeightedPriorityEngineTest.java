@@ -0,0 +1,91 @@
+package disasterresponse.priority;
+
+import disasterresponse.models.Disaster;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedPriorityEngineTest {
+
+    private static final LocalDateTime AS_OF = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private WeightedPriorityEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, Integer> typeWeights = new LinkedHashMap<>();
+        typeWeights.put("Flood", 20);
+        typeWeights.put("Bush'fire", -15);
+        typeWeights.put("Tornado", 0);
+        engine = new WeightedPriorityEngine(new PriorityWeights(50, 3, 7, typeWeights));
+    }
+
+    @Test
+    void testToSql_NonDefaultWeights() {
+        // Zero-weight types are left out, and quotes in a type are escaped
+        assertEquals("CASE type WHEN 'Flood' THEN 20 WHEN 'Bush''fire' THEN -15 ELSE 0 END + "
+                + "severity * 50 + pending_request_count * 7 - 3 * TIMESTAMPDIFF(HOUR, reported_at, ?)",
+                engine.toSql());
+    }
+
+    @Test
+    void testToSql_DefaultWeights() {
+        WeightedPriorityEngine defaults = new WeightedPriorityEngine(PriorityWeights.defaults());
+
+        assertEquals("severity * 100 - 1 * TIMESTAMPDIFF(HOUR, reported_at, ?)", defaults.toSql());
+    }
+
+    @Test
+    void testScore_MatchesSql() {
+        // The values the SQL above gives for each row, worked out by hand.
+        // TIMESTAMPDIFF counts full hours, truncated towards zero.
+        assertEquals(20 + 4 * 50 + 2 * 7 - 3 * 5, engine.score(disaster("Flood", 4, 2, AS_OF.minusMinutes(5 * 60 + 59)), AS_OF));
+        assertEquals(-15 + 3 * 50 - 3 * 1, engine.score(disaster("Bush'fire", 3, 0, AS_OF.minusMinutes(60)), AS_OF));
+        assertEquals(2 * 50 + 7, engine.score(disaster("Tornado", 2, 1, AS_OF.minusMinutes(59)), AS_OF));
+        assertEquals(5 * 50, engine.score(disaster("Landslide", 5, 0, AS_OF), AS_OF));
+        // Reported after the ranking time, as with a client clock running behind
+        assertEquals(50 + 3 * 1, engine.score(disaster("Other", 1, 0, AS_OF.plusMinutes(90)), AS_OF));
+    }
+
+    @Test
+    void testScoreAll_MatchesScore() {
+        List<Disaster> disasters = List.of(
+                disaster("Flood", 4, 2, AS_OF.minusHours(30)),
+                disaster("Flood", 1, 0, AS_OF.minusMinutes(61)),
+                disaster("Bush'fire", 5, 3, AS_OF.minusDays(3)),
+                disaster("Tornado", 2, 0, AS_OF.minusMinutes(1)),
+                disaster("Flood", 3, 1, AS_OF.plusHours(2)));
+        int[] expected = new int[disasters.size()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = engine.score(disasters.get(i), AS_OF);
+        }
+
+        engine.scoreAll(disasters, AS_OF);
+
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], disasters.get(i).getPriority());
+            // Every row ages from the moment it was scored at
+            assertEquals(AS_OF, disasters.get(i).getAsOf());
+        }
+    }
+
+    @Test
+    void testPriorityWeights_NegativeAgePenalty() {
+        assertThrows(IllegalArgumentException.class, () -> new PriorityWeights(100, -1, 0, Map.of()));
+    }
+
+    private static Disaster disaster(String type, int severity, int pendingRequests, LocalDateTime reportedAt) {
+        Disaster disaster = new Disaster();
+        disaster.setType(type);
+        disaster.setSeverity(severity);
+        disaster.setPendingRequestCount(pendingRequests);
+        disaster.setReportedAt(reportedAt);
+        return disaster;
+    }
+}
@@ -0,0 +1,203 @@
+package disasterresponse.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionPoolTest {
+
+    private final List<Connection> opened = new ArrayList<>();
+    private final List<PreparedStatement> prepared = new ArrayList<>();
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testBorrow_ReusesReturnedConnection() throws SQLException {
+        pool = newPool(2, 1_000, 60_000, 0);
+
+        pool.borrow().close();
+        pool.borrow().close();
+
+        assertEquals(1, opened.size());
+        assertEquals(2, pool.getBorrowCount());
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    @Test
+    void testBorrow_TimesOutWhenPoolIsFull() throws SQLException {
+        pool = newPool(1, 100, 60_000, 0);
+        Connection held = pool.borrow();
+
+        long start = System.nanoTime();
+        assertThrows(SQLTransientConnectionException.class, pool::borrow);
+        long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(waitedMillis >= 90, "waited " + waitedMillis + " ms");
+        assertEquals(1, pool.getTimeoutCount());
+        assertEquals(1, opened.size());
+
+        // The slot is still usable once the holder gives it back
+        held.close();
+        pool.borrow().close();
+        assertEquals(1, opened.size());
+    }
+
+    @Test
+    void testBorrow_FailedOpenFreesItsSlot() throws SQLException {
+        pool = new ConnectionPool(() -> {
+            throw new SQLException("Connection refused");
+        }, 1, 100, 60_000, 0, 0);
+
+        assertThrows(SQLException.class, pool::borrow);
+        // Not a timeout: the reserved slot was given back
+        SQLException second = assertThrows(SQLException.class, pool::borrow);
+        assertFalse(second instanceof SQLTransientConnectionException);
+        assertEquals(0, pool.getTimeoutCount());
+    }
+
+    @Test
+    void testBorrow_DiscardsClosedConnection() throws SQLException {
+        pool = newPool(1, 1_000, 60_000, 0);
+        pool.borrow().close();
+        when(opened.get(0).isClosed()).thenReturn(true);
+
+        pool.borrow().close();
+
+        assertEquals(2, opened.size());
+        verify(opened.get(0)).close();
+    }
+
+    @Test
+    void testBorrow_ValidatesConnectionIdleForAWhile() throws Exception {
+        pool = newPool(1, 1_000, 60_000, 0);
+        pool.borrow().close();
+        when(opened.get(0).isValid(anyInt())).thenReturn(false);
+
+        // Past the interval in which a returned connection is trusted
+        Thread.sleep(600);
+        pool.borrow().close();
+
+        verify(opened.get(0)).isValid(anyInt());
+        verify(opened.get(0)).close();
+        assertEquals(2, opened.size());
+    }
+
+    @Test
+    void testRelease_RollsBackOpenTransaction() throws SQLException {
+        pool = newPool(1, 1_000, 60_000, 0);
+        Connection connection = pool.borrow();
+        when(opened.get(0).getAutoCommit()).thenReturn(false);
+
+        connection.close();
+
+        verify(opened.get(0)).rollback();
+        verify(opened.get(0)).setAutoCommit(true);
+        assertThrows(SQLException.class, () -> connection.prepareStatement("SELECT 1"));
+    }
+
+    @Test
+    void testHousekeep_EvictsIdleConnections() throws Exception {
+        pool = newPool(2, 1_000, 1, 0);
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+        first.close();
+        Thread.sleep(5);
+
+        pool.housekeep();
+
+        assertEquals(1, pool.getEvictedCount());
+        assertEquals(0, pool.getIdleCount());
+        verify(opened.get(0)).close();
+        // Borrowed connections are never evicted
+        verify(opened.get(1), never()).close();
+        second.close();
+    }
+
+    @Test
+    void testStatementCache_ReusesAndEvictsLeastRecentlyUsed() throws SQLException {
+        pool = newPool(1, 1_000, 60_000, 2);
+
+        try (Connection connection = pool.borrow()) {
+            connection.prepareStatement("SELECT 1").close();
+            connection.prepareStatement("SELECT 2").close();
+            connection.prepareStatement("SELECT 1").close();
+            // Evicts SELECT 2, the least recently used
+            connection.prepareStatement("SELECT 3").close();
+            connection.prepareStatement("SELECT 1").close();
+        }
+
+        assertEquals(2, pool.getStatementCacheHits());
+        assertEquals(3, pool.getStatementCacheMisses());
+        verify(opened.get(0), times(1)).prepareStatement(eq("SELECT 1"), anyInt());
+        verify(opened.get(0), times(1)).prepareStatement(eq("SELECT 2"), anyInt());
+    }
+
+    @Test
+    void testStatementCache_SameSqlOpenTwiceIsNotShared() throws SQLException {
+        pool = newPool(1, 1_000, 60_000, 4);
+
+        try (Connection connection = pool.borrow()) {
+            PreparedStatement first = connection.prepareStatement("SELECT 1");
+            PreparedStatement second = connection.prepareStatement("SELECT 1");
+
+            assertNotSame(first, second);
+            first.close();
+            second.close();
+        }
+
+        assertEquals(0, pool.getStatementCacheHits());
+        assertEquals(2, pool.getStatementCacheMisses());
+    }
+
+    @Test
+    void testStatementCache_ClosedStatementIsResetNotClosed() throws SQLException {
+        pool = newPool(1, 1_000, 60_000, 4);
+
+        try (Connection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepareStatement("UPDATE t SET a = ?");
+            statement.setInt(1, 5);
+            statement.close();
+
+            assertTrue(statement.isClosed());
+            assertThrows(SQLException.class, () -> statement.setInt(1, 6));
+        }
+
+        verify(prepared.get(0)).clearParameters();
+        verify(prepared.get(0), never()).close();
+    }
+
+    /**
+     * Creates a pool whose connections are mocks, recorded in the order they
+     * were opened.
+     */
+    private ConnectionPool newPool(int maxSize, long borrowTimeoutMillis, long idleTimeoutMillis, int statementCacheSize) {
+        return new ConnectionPool(() -> {
+            Connection connection = mock(Connection.class);
+            when(connection.getAutoCommit()).thenReturn(true);
+            when(connection.isValid(anyInt())).thenReturn(true);
+            when(connection.prepareStatement(anyString(), anyInt())).thenAnswer(invocation -> {
+                PreparedStatement statement = mock(PreparedStatement.class);
+                prepared.add(statement);
+                return statement;
+            });
+            opened.add(connection);
+            return connection;
+        }, maxSize, borrowTimeoutMillis, idleTimeoutMillis, 0, statementCacheSize);
+    }
+}
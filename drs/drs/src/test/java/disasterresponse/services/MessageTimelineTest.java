@@ -0,0 +1,145 @@
+package disasterresponse.services;
+
+import disasterresponse.models.DisasterMessage;
+import disasterresponse.models.MessageCursor;
+import disasterresponse.models.MessageType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageTimelineTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Test
+    void testMergePage_StartsTimelineNewestFirst() {
+        MessageTimeline timeline = new MessageTimeline(1);
+
+        // Act
+        List<DisasterMessage> added = timeline.mergePage(List.of(
+                message(3, NOON.plusMinutes(2)),
+                message(2, NOON.plusMinutes(1)),
+                message(1, NOON)), 3);
+
+        // Assert
+        assertTrue(timeline.isStarted());
+        assertFalse(timeline.isFullyLoaded());
+        assertEquals(List.of(3, 2, 1), ids(added));
+        assertEquals(List.of(3, 2, 1), ids(timeline.getMessages()));
+        MessageCursor older = timeline.getOlderCursor();
+        assertEquals(NOON, older.getMessageTime());
+        assertEquals(1, older.getId());
+        // A sync re-reads a window before the latest message time
+        assertEquals(NOON.plusMinutes(2).minusSeconds(DatabaseUtil.CHANGE_OVERLAP_SECONDS), timeline.getSyncFrom());
+    }
+
+    @Test
+    void testMergePage_ShortPageIsTheLast() {
+        MessageTimeline timeline = new MessageTimeline(1);
+
+        // Act
+        timeline.mergePage(List.of(message(1, NOON)), 50);
+
+        // Assert
+        assertTrue(timeline.isFullyLoaded());
+    }
+
+    @Test
+    void testMerge_SkipsMessagesAlreadyHeld() {
+        MessageTimeline timeline = new MessageTimeline(1);
+        timeline.mergePage(List.of(message(2, NOON.plusMinutes(1)), message(1, NOON)), 2);
+        long bytes = timeline.getEstimatedBytes();
+
+        // Act: the sync window overlaps the messages already held
+        List<DisasterMessage> added = timeline.merge(List.of(
+                message(2, NOON.plusMinutes(1)),
+                message(4, NOON.plusMinutes(3)),
+                message(3, NOON.plusMinutes(1))));
+
+        // Assert
+        assertEquals(List.of(4, 3), ids(added));
+        assertEquals(List.of(4, 3, 2, 1), ids(timeline.getMessages()));
+        assertEquals(4, timeline.size());
+        assertTrue(timeline.getEstimatedBytes() > bytes);
+        assertEquals(NOON.plusMinutes(3).minusSeconds(DatabaseUtil.CHANGE_OVERLAP_SECONDS), timeline.getSyncFrom());
+    }
+
+    @Test
+    void testAddLocal_DoesNotMoveSyncPosition() {
+        MessageTimeline timeline = new MessageTimeline(1);
+        timeline.mergePage(List.of(message(1, NOON)), 50);
+
+        // Act
+        timeline.addLocal(message(5, NOON.plusMinutes(10)));
+        timeline.addLocal(message(5, NOON.plusMinutes(10)));
+
+        // Assert
+        assertEquals(List.of(5, 1), ids(timeline.getMessages()));
+        assertEquals(NOON.minusSeconds(DatabaseUtil.CHANGE_OVERLAP_SECONDS), timeline.getSyncFrom());
+    }
+
+    @Test
+    void testSetApprovalStatuses_UpdatesHeldMessagesOnly() {
+        MessageTimeline timeline = new MessageTimeline(1);
+        DisasterMessage decided = message(1, NOON);
+        DisasterMessage pending = message(2, NOON.plusMinutes(1));
+        timeline.mergePage(List.of(pending, decided), 50);
+
+        // Act
+        timeline.setApprovalStatuses(Map.of(1, 1, 9, 1));
+
+        // Assert
+        assertEquals(1, decided.getApprovalStatus());
+        assertEquals(0, pending.getApprovalStatus());
+        assertEquals(2, timeline.size());
+    }
+
+    @Test
+    void testInsertInOrder_AppendsOlderAndPrependsNewer() {
+        List<DisasterMessage> shown = new ArrayList<>(List.of(message(4, NOON.plusMinutes(4)), message(3, NOON.plusMinutes(3))));
+
+        // Act
+        MessageTimeline.insertInOrder(shown, List.of(message(2, NOON.plusMinutes(2)), message(1, NOON.plusMinutes(1))));
+        MessageTimeline.insertInOrder(shown, List.of(message(6, NOON.plusMinutes(6)), message(5, NOON.plusMinutes(5))));
+
+        // Assert
+        assertEquals(List.of(6, 5, 4, 3, 2, 1), ids(shown));
+    }
+
+    @Test
+    void testInsertInOrder_PlacesInterleavedMessagesByTimeThenId() {
+        List<DisasterMessage> shown = new ArrayList<>(List.of(
+                message(7, NOON.plusMinutes(3)),
+                message(2, NOON.plusMinutes(1)),
+                message(1, NOON)));
+
+        // Act: a late commit with a lower ID, and one sharing a time
+        MessageTimeline.insertInOrder(shown, List.of(message(5, NOON.plusMinutes(2)), message(3, NOON.plusMinutes(1))));
+
+        // Assert
+        assertEquals(List.of(7, 5, 3, 2, 1), ids(shown));
+    }
+
+    private static DisasterMessage message(int id, LocalDateTime messageTime) {
+        DisasterMessage message = new DisasterMessage();
+        message.setId(id);
+        message.setDisasterId(1);
+        message.setMessageTime(messageTime);
+        message.setMessage("Update " + id);
+        message.setMessageType(MessageType.UPDATE);
+        return message;
+    }
+
+    private static List<Integer> ids(List<DisasterMessage> messages) {
+        List<Integer> ids = new ArrayList<>();
+        for (DisasterMessage message : messages) {
+            ids.add(message.getId());
+        }
+        return ids;
+    }
+}
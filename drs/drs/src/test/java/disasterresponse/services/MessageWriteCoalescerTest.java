@@ -0,0 +1,179 @@
+package disasterresponse.services;
+
+import disasterresponse.dao.DisasterMessageDAO;
+import disasterresponse.models.DisasterMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MessageWriteCoalescerTest {
+
+    private DisasterMessageDAO mockDisasterMessageDAO;
+    private Connection mockConnection;
+    private MessageWriteCoalescer coalescer;
+    private int nextId;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        mockDisasterMessageDAO = mock(DisasterMessageDAO.class);
+        mockConnection = mock(Connection.class);
+        coalescer = new MessageWriteCoalescer(mockDisasterMessageDAO);
+        nextId = 100;
+        // Assign IDs the way the insert does, unless a test says otherwise
+        doAnswer(invocation -> {
+            List<DisasterMessage> messages = invocation.getArgument(1);
+            for (DisasterMessage message : messages) {
+                message.setId(nextId++);
+            }
+            return null;
+        }).when(mockDisasterMessageDAO).insertDisasterMessages(any(Connection.class), anyList());
+    }
+
+    @Test
+    void testWriteBatch_WritesQueuedMessagesInOneTransaction() throws Exception {
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            CompletableFuture<Integer> first = coalescer.submit(message("First"));
+            CompletableFuture<Integer> second = coalescer.submit(message("Second"));
+            CompletableFuture<Integer> third = coalescer.submit(message("Third"));
+
+            // Act
+            coalescer.writeBatch();
+
+            // Assert
+            verify(mockDisasterMessageDAO, times(1)).insertDisasterMessages(same(mockConnection), argThat(messages -> messages.size() == 3));
+            verify(mockConnection, times(1)).commit();
+            assertEquals(100, first.join());
+            assertEquals(101, second.join());
+            assertEquals(102, third.join());
+            assertEquals(1, coalescer.getFlushCount());
+            assertEquals(3, coalescer.getMessageCount());
+            assertEquals(3.0, coalescer.getAverageBatchSize());
+        }
+    }
+
+    @Test
+    void testWriteBatch_RejectedBatchIsRetriedOneByOne() throws Exception {
+        DisasterMessage bad = message("Unknown disaster");
+        doAnswer(invocation -> {
+            List<DisasterMessage> messages = invocation.getArgument(1);
+            if (messages.contains(bad)) {
+                throw new BatchUpdateException("Batch failed", new int[0],
+                        new SQLIntegrityConstraintViolationException("Cannot add or update a child row"));
+            }
+            for (DisasterMessage message : messages) {
+                message.setId(nextId++);
+            }
+            return null;
+        }).when(mockDisasterMessageDAO).insertDisasterMessages(any(Connection.class), anyList());
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            CompletableFuture<Integer> first = coalescer.submit(message("First"));
+            CompletableFuture<Integer> rejected = coalescer.submit(bad);
+            CompletableFuture<Integer> third = coalescer.submit(message("Third"));
+
+            // Act
+            coalescer.writeBatch();
+
+            // Assert: the batch, then each message on its own
+            verify(mockDisasterMessageDAO, times(4)).insertDisasterMessages(any(Connection.class), anyList());
+            assertEquals(100, first.join());
+            assertEquals(101, third.join());
+            CompletionException failure = assertThrows(CompletionException.class, rejected::join);
+            assertInstanceOf(BatchUpdateException.class, failure.getCause());
+            assertEquals(1, coalescer.getFailureCount());
+            assertEquals(2, coalescer.getMessageCount());
+        }
+    }
+
+    @Test
+    void testWriteBatch_UnavailableDatabaseFailsWholeBatch() throws Exception {
+        SQLTransientConnectionException timeout = new SQLTransientConnectionException("Timed out waiting for a connection");
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenThrow(timeout);
+            CompletableFuture<Integer> first = coalescer.submit(message("First"));
+            CompletableFuture<Integer> second = coalescer.submit(message("Second"));
+            CompletableFuture<Integer> third = coalescer.submit(message("Third"));
+
+            // Act
+            coalescer.writeBatch();
+
+            // Assert: one attempt, not one per message
+            mockedDatabaseUtil.verify(DatabaseUtil::getConnection, times(1));
+            verify(mockDisasterMessageDAO, never()).insertDisasterMessages(any(Connection.class), anyList());
+            for (CompletableFuture<Integer> future : List.of(first, second, third)) {
+                CompletionException failure = assertThrows(CompletionException.class, future::join);
+                assertSame(timeout, failure.getCause());
+            }
+            assertEquals(3, coalescer.getFailureCount());
+            assertEquals(0, coalescer.getFlushCount());
+        }
+    }
+
+    @Test
+    void testWriteBatch_FailedCommitFailsWholeBatch() throws Exception {
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            doThrow(new SQLException("Communications link failure")).when(mockConnection).commit();
+            CompletableFuture<Integer> first = coalescer.submit(message("First"));
+            CompletableFuture<Integer> second = coalescer.submit(message("Second"));
+
+            // Act
+            coalescer.writeBatch();
+
+            // Assert
+            verify(mockDisasterMessageDAO, times(1)).insertDisasterMessages(any(Connection.class), anyList());
+            verify(mockConnection, times(1)).rollback();
+            assertTrue(first.isCompletedExceptionally());
+            assertTrue(second.isCompletedExceptionally());
+            assertEquals(2, coalescer.getFailureCount());
+        }
+    }
+
+    @Test
+    void testWriteBatch_UnexpectedErrorFailsOnlyThatBatch() throws Exception {
+        doThrow(new IllegalStateException("Unexpected")).doAnswer(invocation -> {
+            List<DisasterMessage> messages = invocation.getArgument(1);
+            messages.get(0).setId(200);
+            return null;
+        }).when(mockDisasterMessageDAO).insertDisasterMessages(any(Connection.class), anyList());
+
+        try (MockedStatic<DatabaseUtil> mockedDatabaseUtil = mockStatic(DatabaseUtil.class)) {
+            mockedDatabaseUtil.when(DatabaseUtil::getConnection).thenReturn(mockConnection);
+            CompletableFuture<Integer> failed = coalescer.submit(message("First"));
+            coalescer.writeBatch();
+
+            // Act
+            CompletableFuture<Integer> next = coalescer.submit(message("Second"));
+            coalescer.writeBatch();
+
+            // Assert
+            CompletionException failure = assertThrows(CompletionException.class, failed::join);
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+            assertEquals(200, next.join());
+        }
+    }
+
+    private static DisasterMessage message(String text) {
+        DisasterMessage message = new DisasterMessage();
+        message.setDisasterId(1);
+        message.setDepartmentId(2);
+        message.setMessage(text);
+        message.setMessagedBy(3);
+        return message;
+    }
+}
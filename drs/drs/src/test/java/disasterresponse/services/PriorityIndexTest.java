@@ -0,0 +1,147 @@
+package disasterresponse.services;
+
+import disasterresponse.models.Disaster;
+import disasterresponse.priority.PriorityWeights;
+import disasterresponse.priority.WeightedPriorityEngine;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityIndexTest {
+
+    private static final LocalDateTime AS_OF = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Test
+    void testTop_StopsAfterLimit() {
+        CountingEngine engine = new CountingEngine(100, 1);
+        PriorityIndex index = new PriorityIndex(engine);
+        List<Disaster> disasters = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            disasters.add(disaster(id, id, "Open", AS_OF.minusMinutes(30)));
+        }
+        index.load(disasters);
+
+        List<Disaster> top = index.top(3, AS_OF, "Open");
+
+        assertEquals(List.of(100, 99, 98), ids(top));
+        assertEquals(10000, top.get(0).getPriority());
+        // The fourth entry cannot reach the third priority, so no more are scored
+        assertEquals(3, engine.scored);
+    }
+
+    @Test
+    void testTop_TiesNewestFirst() {
+        PriorityIndex index = new PriorityIndex(new CountingEngine(100, 1));
+        index.load(List.of(
+                disaster(1, 5, "Open", AS_OF.minusHours(2)),
+                disaster(2, 5, "Open", AS_OF.minusHours(2)),
+                disaster(3, 5, "Open", AS_OF.minusMinutes(150)),
+                disaster(4, 3, "Open", AS_OF)));
+
+        List<Disaster> top = index.top(3, AS_OF, "Open");
+
+        // All three are 2 full hours old, so the newer ID wins each tie
+        assertEquals(List.of(3, 2, 1), ids(top));
+        assertEquals(498, top.get(2).getPriority());
+    }
+
+    @Test
+    void testTop_PenaltyAboveOnePerHour() {
+        PriorityIndex index = new PriorityIndex(new CountingEngine(1, 3));
+        // Base 100, 2 h 59 min old: 100 - 3 * 2 = 94
+        Disaster older = disaster(1, 100, "Open", AS_OF.minusMinutes(179));
+        // Base 93, 1 min old: 93, though ahead of the older one by key
+        Disaster newer = disaster(2, 93, "Open", AS_OF.minusMinutes(1));
+        index.load(List.of(older, newer));
+
+        List<Disaster> top = index.top(1, AS_OF, null);
+
+        assertEquals(List.of(1), ids(top));
+        assertEquals(94, top.get(0).getPriority());
+        assertEquals(List.of(1, 2), ids(index.top(2, AS_OF, null)));
+    }
+
+    @Test
+    void testTop_FiltersByStatus() {
+        PriorityIndex index = new PriorityIndex(new CountingEngine(100, 1));
+        index.load(List.of(
+                disaster(1, 5, "In Progress", AS_OF),
+                disaster(2, 3, "Open", AS_OF),
+                disaster(3, 1, "Open", AS_OF)));
+
+        assertEquals(List.of(2, 3), ids(index.top(2, AS_OF, "Open")));
+        assertEquals(List.of(1), ids(index.top(2, AS_OF, "In Progress")));
+    }
+
+    @Test
+    void testApply_IgnoresOlderChange() {
+        PriorityIndex index = new PriorityIndex(new CountingEngine(100, 1));
+        Disaster current = disaster(1, 5, "Open", AS_OF);
+        current.setUpdatedAt(AS_OF.plusMinutes(10));
+        index.load(List.of(current));
+
+        Disaster stale = disaster(1, 1, "Open", AS_OF);
+        stale.setUpdatedAt(AS_OF.plusMinutes(5));
+        index.apply(stale);
+
+        assertEquals(500, index.top(1, AS_OF, "Open").get(0).getPriority());
+    }
+
+    @Test
+    void testApply_ClosedStaysClosed() {
+        PriorityIndex index = new PriorityIndex(new CountingEngine(100, 1));
+        Disaster open = disaster(1, 5, "Open", AS_OF);
+        open.setUpdatedAt(AS_OF.plusMinutes(5));
+        index.load(List.of(open));
+
+        Disaster closed = disaster(1, 5, "Closed", AS_OF);
+        closed.setUpdatedAt(AS_OF.plusMinutes(10));
+        index.apply(closed);
+        // The open row again, read before the disaster was closed
+        index.apply(open);
+
+        assertEquals(0, index.size());
+        assertEquals(AS_OF.plusMinutes(10).minusSeconds(DatabaseUtil.CHANGE_OVERLAP_SECONDS), index.getRefreshFrom());
+    }
+
+    private static Disaster disaster(int id, int severity, String status, LocalDateTime reportedAt) {
+        Disaster disaster = new Disaster();
+        disaster.setId(id);
+        disaster.setType("Flood");
+        disaster.setSeverity(severity);
+        disaster.setStatus(status);
+        disaster.setReportedAt(reportedAt);
+        return disaster;
+    }
+
+    private static List<Integer> ids(List<Disaster> disasters) {
+        List<Integer> ids = new ArrayList<>();
+        for (Disaster disaster : disasters) {
+            ids.add(disaster.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Scores by severity and age only, and counts the disasters scored.
+     */
+    private static final class CountingEngine extends WeightedPriorityEngine {
+
+        private int scored;
+
+        private CountingEngine(int severityWeight, int agePenaltyPerHour) {
+            super(new PriorityWeights(severityWeight, agePenaltyPerHour, 0, Map.of()));
+        }
+
+        @Override
+        public int score(Disaster disaster, long asOfMillis) {
+            scored++;
+            return super.score(disaster, asOfMillis);
+        }
+    }
+}
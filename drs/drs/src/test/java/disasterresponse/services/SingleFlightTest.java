@@ -0,0 +1,152 @@
+package disasterresponse.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final SingleFlight<String, List<String>> flight = new SingleFlight<>(ArrayList::new);
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testExecute_ConcurrentCallersShareOneQuery() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<List<String>> leader = executor.submit(() -> flight.execute("Open", blockingQuery(started, release)));
+        started.await();
+        Future<List<String>> follower = executor.submit(() -> flight.execute("Open", countingQuery()));
+        awaitSharedCount(1);
+        release.countDown();
+
+        // Act
+        List<String> leaderRows = leader.get(5, TimeUnit.SECONDS);
+        List<String> followerRows = follower.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(1, queries.get());
+        assertEquals(List.of("row 1"), leaderRows);
+        assertEquals(leaderRows, followerRows);
+        // Each caller has its own copy
+        assertNotSame(leaderRows, followerRows);
+        assertEquals(2, flight.getCallCount());
+    }
+
+    @Test
+    void testExecute_DifferentKeysDoNotShare() {
+        // Act
+        List<String> open = flight.execute("Open", countingQuery());
+        List<String> closed = flight.execute("Closed", countingQuery());
+
+        // Assert
+        assertEquals(List.of("row 1"), open);
+        assertEquals(List.of("row 2"), closed);
+        assertEquals(0, flight.getSharedCount());
+    }
+
+    @Test
+    void testExecute_FinishedQueryIsNotReused() {
+        flight.execute("Open", countingQuery());
+
+        // Act
+        List<String> rows = flight.execute("Open", countingQuery());
+
+        // Assert
+        assertEquals(List.of("row 2"), rows);
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void testInvalidate_LaterCallRunsFreshQuery() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<List<String>> beforeWrite = executor.submit(() -> flight.execute("Open", blockingQuery(started, release)));
+        started.await();
+
+        // Act
+        flight.invalidate();
+        List<String> afterWrite = flight.execute("Open", countingQuery());
+        release.countDown();
+
+        // Assert: the fresh query ran while the earlier one was still blocked
+        assertEquals(List.of("row 1"), afterWrite);
+        assertEquals(List.of("row 2"), beforeWrite.get(5, TimeUnit.SECONDS));
+        assertEquals(0, flight.getSharedCount());
+    }
+
+    @Test
+    void testExecute_FailureReachesSharingCallers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("Query failed");
+
+        Future<List<String>> leader = executor.submit(() -> flight.execute("Open", () -> {
+            started.countDown();
+            awaitQuietly(release);
+            throw failure;
+        }));
+        started.await();
+        Future<List<String>> follower = executor.submit(() -> flight.execute("Open", countingQuery()));
+        awaitSharedCount(1);
+        release.countDown();
+
+        // Act
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+
+        // Assert
+        assertSame(failure, leaderFailure.getCause());
+        assertSame(failure, followerFailure.getCause());
+        assertEquals(0, queries.get());
+
+        // The failed query is not in flight any more
+        assertEquals(List.of("row 1"), flight.execute("Open", countingQuery()));
+    }
+
+    private Supplier<List<String>> countingQuery() {
+        return () -> List.of("row " + queries.incrementAndGet());
+    }
+
+    private Supplier<List<String>> blockingQuery(CountDownLatch started, CountDownLatch release) {
+        return () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return List.of("row " + queries.incrementAndGet());
+        };
+    }
+
+    private void awaitSharedCount(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.getSharedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, flight.getSharedCount());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
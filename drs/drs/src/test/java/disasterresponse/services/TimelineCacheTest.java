@@ -0,0 +1,132 @@
+package disasterresponse.services;
+
+import disasterresponse.models.DisasterMessage;
+import disasterresponse.models.MessageType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineCacheTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Test
+    void testGetTimeline_CountsHitsAndMisses() {
+        TimelineCache cache = new TimelineCache();
+
+        // Act
+        MessageTimeline first = cache.getTimeline(1);
+        MessageTimeline again = cache.getTimeline(1);
+        cache.getTimeline(2);
+
+        // Assert
+        assertSame(first, again);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1.0 / 3, cache.getHitRate(), 1e-9);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testSetMaxBytes_EvictsLeastRecentlyUsed() {
+        TimelineCache cache = new TimelineCache();
+        MessageTimeline first = withMessage(cache, 1);
+        withMessage(cache, 2);
+        MessageTimeline third = withMessage(cache, 3);
+        long timelineBytes = first.getEstimatedBytes();
+        // Viewing the first disaster again makes the second the eldest
+        cache.getTimeline(1);
+
+        // Act
+        cache.setMaxBytes(2 * timelineBytes);
+
+        // Assert
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2 * timelineBytes, cache.getEstimatedBytes());
+        assertSame(first, cache.getTimeline(1));
+        assertSame(third, cache.getTimeline(3));
+        assertEquals(0, cache.getTimeline(2).size());
+    }
+
+    @Test
+    void testTrim_KeepsTimelineInUse() {
+        TimelineCache cache = new TimelineCache();
+        cache.setMaxBytes(1);
+        withMessage(cache, 2);
+        MessageTimeline inUse = withMessage(cache, 1);
+        // The timeline in use is the eldest and over the budget on its own
+        cache.getTimeline(2);
+
+        // Act
+        cache.trim(1);
+
+        // Assert
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(inUse, cache.getTimeline(1));
+    }
+
+    @Test
+    void testWriteThrough_AddsOnlyToCachedTimelines() {
+        TimelineCache cache = new TimelineCache();
+        MessageTimeline cached = withMessage(cache, 1);
+
+        // Act
+        cache.writeThrough(message(10, 1));
+        cache.writeThrough(message(11, 7));
+
+        // Assert
+        assertEquals(2, cached.size());
+        // No timeline is started for a disaster nobody is viewing
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testWriteThroughApproval_UpdatesCachedRequest() {
+        TimelineCache cache = new TimelineCache();
+        DisasterMessage request = message(10, 1);
+        request.setMessageType(MessageType.REQUEST);
+        cache.getTimeline(1).mergePage(List.of(request), 50);
+
+        // Act
+        cache.writeThroughApproval(1, 10, 1);
+
+        // Assert
+        assertEquals(1, cache.getTimeline(1).getMessages().get(0).getApprovalStatus());
+    }
+
+    @Test
+    void testInvalidate_DiscardsEveryTimeline() {
+        TimelineCache cache = new TimelineCache();
+        withMessage(cache, 1);
+        withMessage(cache, 2);
+
+        // Act
+        cache.invalidate();
+
+        // Assert
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getEstimatedBytes());
+    }
+
+    private static MessageTimeline withMessage(TimelineCache cache, int disasterId) {
+        MessageTimeline timeline = cache.getTimeline(disasterId);
+        timeline.mergePage(List.of(message(disasterId, disasterId)), 50);
+        return timeline;
+    }
+
+    private static DisasterMessage message(int id, int disasterId) {
+        DisasterMessage message = new DisasterMessage();
+        message.setId(id);
+        message.setDisasterId(disasterId);
+        message.setMessageTime(NOON.plusMinutes(id));
+        message.setMessage("Update " + id);
+        message.setMessageType(MessageType.UPDATE);
+        return message;
+    }
+}
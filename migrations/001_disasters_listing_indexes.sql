@@ -0,0 +1,10 @@
+-- Indexes for the keyset-paged disaster listings.
+-- Pages are read newest first with
+-- "reported_at < ? OR (reported_at = ? AND id < ?)", optionally filtered by
+-- status, so both orders can be served as a range scan of an index.
+
+USE disaster_response;
+
+ALTER TABLE `disasters`
+  ADD KEY `idx_disasters_reported_at_id` (`reported_at`, `id`),
+  ADD KEY `idx_disasters_status_reported_at` (`status`, `reported_at`, `id`);
@@ -0,0 +1,13 @@
+-- Change tracking for incremental refresh of the disaster listings.
+-- MySQL stamps updated_at on every insert and on every update that changes a
+-- column, so clients can ask for "rows changed since" their last read.
+
+USE disaster_response;
+
+ALTER TABLE `disasters`
+  ADD COLUMN `updated_at` timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)
+    AFTER `reported_at`,
+  ADD KEY `idx_disasters_updated_at` (`updated_at`);
+
+-- Existing rows have not changed since they were reported
+UPDATE `disasters` SET `updated_at` = COALESCE(`reported_at`, `updated_at`);
@@ -0,0 +1,9 @@
+-- Index for the keyset-paged message timeline.
+-- Pages are read newest first with "disasterId = ? AND (messageTime < ? OR
+-- (messageTime = ? AND id < ?))", so each page is a short backwards range scan
+-- of this index.
+
+USE disaster_response;
+
+ALTER TABLE `disaster_messages`
+  ADD KEY `idx_disaster_messages_timeline` (`disasterId`, `messageTime`, `id`);
@@ -0,0 +1,23 @@
+-- Structured message type for disaster messages.
+-- Requests and decisions used to be recognised by a "[REQUEST]", "[APPROVE]" or
+-- "[REJECT]" prefix in the message text, which no index can serve. The type now
+-- has its own column, and pending requests are a seek on
+-- (disasterId, message_type, approval_status).
+
+USE disaster_response;
+
+ALTER TABLE `disaster_messages`
+  ADD COLUMN `message_type` enum('UPDATE','REQUEST','APPROVE','REJECT') NOT NULL DEFAULT 'UPDATE'
+    AFTER `messagedBy`,
+  ADD KEY `idx_disaster_messages_type` (`disasterId`, `message_type`, `approval_status`);
+
+-- Backfill existing rows from their text prefix. Decision messages repeat the
+-- request text after their own prefix, so only the leading prefix counts.
+UPDATE `disaster_messages`
+SET `message_type` = CASE
+    WHEN `message` LIKE '[REQUEST]%' THEN 'REQUEST'
+    WHEN `message` LIKE '[APPROVE]%' THEN 'APPROVE'
+    WHEN `message` LIKE '[REJECT]%' THEN 'REJECT'
+    ELSE 'UPDATE'
+  END
+WHERE `message` LIKE '[%';
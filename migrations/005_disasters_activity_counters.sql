@@ -0,0 +1,27 @@
+-- Activity counters on disasters.
+-- The number of messages, the number of pending resource requests and the
+-- time of the latest message are kept on each disaster, so listings can show
+-- and rank by them without aggregating disaster_messages. The application
+-- maintains them in the same transaction as message inserts and approvals;
+-- disasterresponse.services.ActivityCounterRepair recomputes them if needed.
+
+USE disaster_response;
+
+ALTER TABLE `disasters`
+  ADD COLUMN `message_count` int NOT NULL DEFAULT 0,
+  ADD COLUMN `pending_request_count` int NOT NULL DEFAULT 0,
+  ADD COLUMN `last_activity_at` timestamp(3) NULL DEFAULT NULL;
+
+-- Backfill from the existing messages
+UPDATE `disasters` d
+  JOIN (SELECT `disasterId`,
+               COUNT(*) AS `message_count`,
+               SUM(`message_type` = 'REQUEST' AND `approval_status` IS NULL) AS `pending_request_count`,
+               MAX(`messageTime`) AS `last_activity_at`
+        FROM `disaster_messages`
+        GROUP BY `disasterId`) a ON a.`disasterId` = d.`id`
+SET d.`message_count` = a.`message_count`,
+    d.`pending_request_count` = a.`pending_request_count`,
+    d.`last_activity_at` = a.`last_activity_at`,
+    -- Keep updated_at as it was; the backfill is not a change to the disaster
+    d.`updated_at` = d.`updated_at`;